@@ -0,0 +1,179 @@
+package com.github.kay9.dragonmounts.client;
+
+import net.minecraft.util.Mth;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation rate of the per-frame math in {@link DragonAnimator}. Run with {@code ./gradlew jmh} and compare
+ * {@code gc.alloc.rate.norm}.
+ * <p>
+ * {@link #animate} drives a real animator through {@link DragonAnimator#pose}, which is everything animate() does
+ * short of writing to the model (its parts need the mixins applied) and calling back into the dragon.
+ * {@link #legsAndFingers} and {@link #legacyLegsAndFingers} compare the helpers that used to allocate against
+ * {@link Legacy}, the animator as it was before the allocation pass, over the animator's own tables.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DragonAnimatorBenchmark
+{
+    private final DragonAnimator animator = new DragonAnimator(null); // pose() never touches the dragon
+    private final float[] xGround = {0, 0, 0, 0};
+    private final float[] xGroundWalk2 = {0, 0, 0, 0};
+
+    private float moveTime;
+
+    @Benchmark
+    public void animate(Blackhole bh)
+    {
+        float ground = step();
+        float flutter = 1 - ground;
+        animator.setMovement(moveTime, ground);
+        animator.pose(moveTime * 0.05f % 1, ground, flutter, ground * 0.5f, ground * 0.3f, 0, flutter);
+        bh.consume(animator);
+    }
+
+    @Benchmark
+    public void legsAndFingers(Blackhole bh)
+    {
+        float ground = step();
+        float sit = 1 - ground;
+        float walk = ground * 0.5f;
+
+        float rotYOfs = Mth.sin(moveTime) * 0.03f;
+        float rotYMulti = 1;
+        for (int i = 0; i < 4; i++)
+        {
+            bh.consume(DragonAnimator.wingFingerYRot(i, rotYOfs * rotYMulti, ground));
+            rotYMulti -= 0.2f;
+        }
+
+        for (int i = 0; i < 4; i++)
+        {
+            DragonAnimator.legGroundXRots(i, sit, walk, moveTime, xGround, xGroundWalk2);
+            bh.consume(xGround);
+            bh.consume(DragonAnimator.legGroundYRot(i, sit, walk));
+        }
+    }
+
+    @Benchmark
+    public void legacyLegsAndFingers(Blackhole bh)
+    {
+        float ground = step();
+        float sit = 1 - ground;
+        float walk = ground * 0.5f;
+
+        Legacy.wingFingerYRots(Mth.sin(moveTime) * 0.03f, ground, bh);
+
+        for (int i = 0; i < 4; i++)
+        {
+            Legacy.legGroundXRots(i, sit, walk, moveTime, xGround, xGroundWalk2);
+            bh.consume(xGround);
+            bh.consume(DragonAnimator.legGroundYRot(i, sit, walk)); // never allocated
+        }
+    }
+
+    // sweep through flying, grounded, walking and sitting so no path short-circuits
+    private float step()
+    {
+        moveTime += 0.37f;
+        return (Mth.sin(moveTime * 0.1f) + 1) * 0.5f;
+    }
+
+    /**
+     * The animator's leg and wing finger math before the allocation pass: fresh finger arrays every frame and varargs
+     * splines.
+     */
+    static class Legacy
+    {
+        static void wingFingerYRots(float rotYOfs, float ground, Blackhole bh)
+        {
+            // interpolate between folded and unfolded wing angles; these used to be array literals
+            float[] yFold = DragonAnimator.Y_WING_FINGER_FOLD.clone();
+            float[] yUnfold = DragonAnimator.Y_WING_FINGER_UNFOLD.clone();
+
+            float rotYMulti = 1;
+            for (int i = 0; i < 4; i++)
+            {
+                bh.consume(DragonAnimator.terpSmoothStep(yUnfold[i], yFold[i] + rotYOfs * rotYMulti, ground));
+                rotYMulti -= 0.2f;
+            }
+        }
+
+        static void legGroundXRots(int leg, float sit, float walk, float moveTime, float[] result, float[] walkCycle)
+        {
+            DragonAnimator.slerpArrays(DragonAnimator.X_GROUND_STAND[leg % 2], DragonAnimator.X_GROUND_SIT[leg % 2], result, sit);
+            result[3] = -(result[0] + result[1] + result[2]);
+
+            if (walk > 0)
+            {
+                var keyframes = DragonAnimator.X_GROUND_WALK;
+                splineArrays(moveTime * 0.2f, leg > 1, walkCycle,
+                        keyframes[0][leg % 2], keyframes[1][leg % 2], keyframes[2][leg % 2]);
+                walkCycle[3] -= walkCycle[0] + walkCycle[1] + walkCycle[2];
+
+                DragonAnimator.slerpArrays(result, walkCycle, result, walk);
+            }
+        }
+
+        private static void splineArrays(float x, boolean shift, float[] result, float[]... nodes)
+        {
+            int i1 = (int) x % nodes.length;
+            int i2 = (i1 + 1) % nodes.length;
+            int i3 = (i1 + 2) % nodes.length;
+
+            float[] a1 = nodes[i1];
+            float[] a2 = nodes[i2];
+            float[] a3 = nodes[i3];
+
+            float xn = x % nodes.length - i1;
+
+            if (shift) terpCatmullRomSpline(xn, result, a2, a3, a1, a2);
+            else terpCatmullRomSpline(xn, result, a1, a2, a3, a1);
+        }
+
+        private static void terpCatmullRomSpline(float x, float[] result, float[]... knots)
+        {
+            var cr = DragonAnimator.CR;
+            int nknots = knots.length;
+            int nspans = nknots - 3;
+            int knot = 0;
+            if (nspans < 1)
+            {
+                throw new IllegalArgumentException("Spline has too few knots");
+            }
+            x = Mth.clamp(x, 0, 0.9999f) * nspans;
+
+            int span = (int) x;
+            if (span >= nknots - 3)
+            {
+                span = nknots - 3;
+            }
+
+            x -= span;
+            knot += span;
+
+            int dimension = result.length;
+            for (int i = 0; i < dimension; i++)
+            {
+                float knot0 = knots[knot][i];
+                float knot1 = knots[knot + 1][i];
+                float knot2 = knots[knot + 2][i];
+                float knot3 = knots[knot + 3][i];
+
+                float c3 = cr[0][0] * knot0 + cr[0][1] * knot1 + cr[0][2] * knot2 + cr[0][3] * knot3;
+                float c2 = cr[1][0] * knot0 + cr[1][1] * knot1 + cr[1][2] * knot2 + cr[1][3] * knot3;
+                float c1 = cr[2][0] * knot0 + cr[2][1] * knot1 + cr[2][2] * knot2 + cr[2][3] * knot3;
+                float c0 = cr[3][0] * knot0 + cr[3][1] * knot1 + cr[3][2] * knot2 + cr[3][3] * knot3;
+
+                result[i] = ((c3 * x + c2) * x + c1) * x + c0;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.data.BuiltinRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.material.Fluids;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One block habitat and one fluid habitat counted around a position: through {@link NeighbourhoodScanner} in a single pass,
+ * and the way NearbyBlocksHabitat and FluidHabitat used to, with a {@link BlockPos#betweenClosedStream} pass each.
+ * <p>
+ * Runs on real chunk sections without a level; the stream path reads them the way LevelChunk#getBlockState does,
+ * skipping the level's chunk lookup, which only flatters it. The center sits on a section corner, so every scan spans
+ * sections in all directions. Run with {@code ./gradlew jmh} and compare time and {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeighbourhoodScannerBenchmark
+{
+    static
+    {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    private static final int COLUMNS = 4;
+    private static final BlockState[] PALETTE = {
+            Blocks.AIR.defaultBlockState(),
+            Blocks.STONE.defaultBlockState(),
+            Blocks.DIRT.defaultBlockState(),
+            Blocks.OAK_LOG.defaultBlockState(),
+            Blocks.WATER.defaultBlockState()
+    };
+
+    @Param({"1", "4", "16"})
+    private int radius;
+
+    private final BlockPos center = new BlockPos(32, 64, 32);
+    private final LevelHeightAccessor heights = new LevelHeightAccessor()
+    {
+        @Override
+        public int getHeight()
+        {
+            return 384;
+        }
+
+        @Override
+        public int getMinBuildHeight()
+        {
+            return -64;
+        }
+    };
+    private final LevelChunkSection[][][] columns = new LevelChunkSection[COLUMNS][COLUMNS][];
+    private int blocks, fluids;
+    private final NeighbourhoodScanner.Visitor counter = (p, state) ->
+    {
+        if (state.is(Blocks.OAK_LOG)) blocks++;
+        if (state.getFluidState().getType() == Fluids.WATER) fluids++;
+    };
+
+    @Setup
+    public void fill()
+    {
+        var random = new Random(0);
+        for (int x = 0; x < COLUMNS; x++)
+        {
+            for (int z = 0; z < COLUMNS; z++)
+            {
+                var sections = new LevelChunkSection[heights.getSectionsCount()];
+                for (int i = 0; i < sections.length; i++)
+                {
+                    var section = new LevelChunkSection(heights.getSectionYFromSectionIndex(i), BuiltinRegistries.BIOME);
+                    var y = SectionPos.sectionToBlockCoord(heights.getSectionYFromSectionIndex(i));
+                    if (Math.abs(y + 8 - center.getY()) <= 32) // enough to cover the largest radius
+                        for (int bx = 0; bx < 16; bx++)
+                            for (int by = 0; by < 16; by++)
+                                for (int bz = 0; bz < 16; bz++)
+                                    section.setBlockState(bx, by, bz, PALETTE[random.nextInt(PALETTE.length)], false);
+                    section.recalcBlockCounts();
+                    sections[i] = section;
+                }
+                columns[x][z] = sections;
+            }
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole bh)
+    {
+        blocks = fluids = 0;
+        NeighbourhoodScanner.scan(heights, (x, z) -> columns[x][z], center, radius, counter);
+        bh.consume(blocks);
+        bh.consume(fluids);
+    }
+
+    @Benchmark
+    public void streams(Blackhole bh)
+    {
+        var from = center.offset(radius, radius, radius);
+        var to = center.offset(-radius, -radius, -radius);
+        bh.consume(BlockPos.betweenClosedStream(from, to).filter(p -> getBlockState(p).is(Blocks.OAK_LOG)).count());
+        bh.consume(BlockPos.betweenClosedStream(from, to).filter(p -> getBlockState(p).getFluidState().getType() == Fluids.WATER).count());
+    }
+
+    private BlockState getBlockState(BlockPos pos)
+    {
+        if (heights.isOutsideBuildHeight(pos)) return Blocks.VOID_AIR.defaultBlockState();
+        var section = columns[SectionPos.blockToSectionCoord(pos.getX())][SectionPos.blockToSectionCoord(pos.getZ())][heights.getSectionIndex(pos.getY())];
+        return section.hasOnlyAir()? Blocks.AIR.defaultBlockState() : section.getBlockState(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+    }
+}
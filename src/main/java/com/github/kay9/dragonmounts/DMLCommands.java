@@ -0,0 +1,51 @@
+package com.github.kay9.dragonmounts;
+
+import com.github.kay9.dragonmounts.abilities.FootprintBatch;
+import com.github.kay9.dragonmounts.dragon.DragonLod;
+import com.github.kay9.dragonmounts.habitats.HabitatScheduler;
+import com.github.kay9.dragonmounts.network.DragonStateSync;
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.TextComponent;
+
+/**
+ * {@code /dml stats}: what the performance options in the server config are doing, for operators tuning them.
+ */
+public class DMLCommands
+{
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher)
+    {
+        dispatcher.register(Commands.literal("dml")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("stats").executes(c -> stats(c.getSource()))));
+    }
+
+    private static int stats(CommandSourceStack source)
+    {
+        send(source, String.format("Dragon state sync: packets=%d entries=%d bytes=%d",
+                DragonStateSync.packets(), DragonStateSync.entries(), DragonStateSync.bytes()));
+
+        for (var level : source.getServer().getAllLevels())
+        {
+            var census = DragonLod.census(level);
+            var lod = new StringBuilder(level.dimension().location() + ": dragon LOD");
+            for (var tier : DragonLod.Tier.values())
+                lod.append(' ').append(tier.name().toLowerCase()).append('=').append(census.population(tier));
+            lod.append(String.format(" dormant=%.1f%%", census.dormantFraction() * 100));
+            send(source, lod.toString());
+
+            var habitats = HabitatScheduler.get(level);
+            send(source, String.format("%s: habitat updates=%d deferred=%d (last tick %d) queued=%d, footprints dropped=%d",
+                    level.dimension().location(), habitats.updated(), habitats.deferred(), habitats.lastDeferred(), habitats.queued(),
+                    FootprintBatch.get(level).dropped()));
+        }
+
+        return 1;
+    }
+
+    private static void send(CommandSourceStack source, String line)
+    {
+        source.sendSuccess(new TextComponent(line), false);
+    }
+}
@@ -33,6 +33,66 @@ public class DMLConfig
         return UPDATE_HABITATS.get();
     }
 
+    private static final ForgeConfigSpec.IntValue HABITAT_UPDATE_BUDGET;
+    public static int habitatUpdateBudget()
+    {
+        return HABITAT_UPDATE_BUDGET.get();
+    }
+
+    private static final ForgeConfigSpec.DoubleValue HABITAT_UPDATE_JITTER;
+    public static double habitatUpdateJitter()
+    {
+        return HABITAT_UPDATE_JITTER.get();
+    }
+
+    private static final ForgeConfigSpec.BooleanValue ASYNC_HABITAT_UPDATES;
+    public static boolean asyncHabitatUpdates()
+    {
+        return ASYNC_HABITAT_UPDATES.get();
+    }
+
+    private static final ForgeConfigSpec.BooleanValue HATCH_EGGS_AS_BLOCKS;
+    public static boolean hatchEggsAsBlocks()
+    {
+        return HATCH_EGGS_AS_BLOCKS.get();
+    }
+
+    private static final ForgeConfigSpec.IntValue GROWTH_STEPS;
+    public static int growthSteps()
+    {
+        return GROWTH_STEPS.get();
+    }
+
+    private static final ForgeConfigSpec.IntValue LOD_NEAR_DISTANCE;
+    public static int lodNearDistance()
+    {
+        return LOD_NEAR_DISTANCE.get();
+    }
+
+    private static final ForgeConfigSpec.IntValue LOD_FAR_DISTANCE;
+    public static int lodFarDistance()
+    {
+        return LOD_FAR_DISTANCE.get();
+    }
+
+    private static final ForgeConfigSpec.IntValue LOD_REDUCED_INTERVAL;
+    public static int lodReducedInterval()
+    {
+        return LOD_REDUCED_INTERVAL.get();
+    }
+
+    private static final ForgeConfigSpec.IntValue LOD_MINIMAL_INTERVAL;
+    public static int lodMinimalInterval()
+    {
+        return LOD_MINIMAL_INTERVAL.get();
+    }
+
+    private static final ForgeConfigSpec.IntValue FOOTPRINT_LIMIT;
+    public static int footprintLimit()
+    {
+        return FOOTPRINT_LIMIT.get();
+    }
+
     private static final ForgeConfigSpec.IntValue REPRO_LIMIT;
     public static int reproLimit()
     {
@@ -71,6 +131,32 @@ public class DMLConfig
                 .define("use_loot_tables", false);
         UPDATE_HABITATS = configurator.comment("Should Dragon Eggs adapt to their environments and change breeds?")
                 .define("update_habitats", true);
+        HABITAT_UPDATE_BUDGET = configurator.comment("Time (in microseconds) each world may spend per tick updating Dragon Egg habitats.",
+                "Updates that don't fit are deferred to the following ticks. At least one update runs every tick.")
+                .defineInRange("habitat_update_budget", 1000, 0, 50000);
+        HABITAT_UPDATE_JITTER = configurator.comment("How much (as a fraction of the update interval) each Dragon Egg's habitat update interval is randomly varied.",
+                "Keeps eggs placed at the same time from all updating on the same tick.")
+                .defineInRange("habitat_update_jitter", 0.25, 0, 1);
+        ASYNC_HABITAT_UPDATES = configurator.comment("Should Dragon Egg habitats be scored on background threads?",
+                "The server thread then only samples the egg's surroundings; results are applied on the following tick.")
+                .define("async_habitat_updates", false);
+        HATCH_EGGS_AS_BLOCKS = configurator.comment("Should Dragon Eggs stay blocks while hatching, instead of turning into entities?",
+                "Cheaper for servers with many incubating eggs. Eggs still fall like blocks, but can no longer be pushed around.")
+                .define("hatch_eggs_as_blocks", false);
+        GROWTH_STEPS = configurator.comment("Number of steps a growing dragon's hitbox and size-based attributes change in.",
+                "Rendering stays smooth; fewer steps mean less work for growing dragons.")
+                .defineInRange("growth_steps", 64, 1, 1024);
+        LOD_NEAR_DISTANCE = configurator.comment("Dragons with a player within this many blocks run their AI every tick (unless sitting.)")
+                .defineInRange("lod_near_distance", 32, 0, 512);
+        LOD_FAR_DISTANCE = configurator.comment("Dragons with no player within this many blocks run their AI least often.")
+                .defineInRange("lod_far_distance", 96, 0, 512);
+        LOD_REDUCED_INTERVAL = configurator.comment("How often (in ticks) sitting dragons, or dragons with players some way off, run their AI and abilities.",
+                "Dragons that are ridden, leashed, flying, fighting or in love always run every tick. Set to 1 to disable.")
+                .defineInRange("lod_reduced_interval", 4, 1, 100);
+        LOD_MINIMAL_INTERVAL = configurator.comment("How often (in ticks) dragons with no players around run their AI and abilities. Set to 1 to disable.")
+                .defineInRange("lod_minimal_interval", 20, 1, 100);
+        FOOTPRINT_LIMIT = configurator.comment("Most footprints (flowers, snow, etc.) dragons may leave in a world each tick. Any more are skipped. Set to 0 to disable footprints.")
+                .defineInRange("footprint_limit", 64, 0, 4096);
         REPRO_LIMIT = configurator.comment("Number of times a dragon is able to breed.")
                 .defineInRange("breed_limit", TameableDragon.DEFAULT_REPRO_LIMIT, 0, Integer.MAX_VALUE);
 
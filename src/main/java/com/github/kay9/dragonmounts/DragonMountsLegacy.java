@@ -1,17 +1,32 @@
 package com.github.kay9.dragonmounts;
 
+import com.github.kay9.dragonmounts.abilities.FootprintBatch;
+import com.github.kay9.dragonmounts.abilities.GreenToesAbility;
+import com.github.kay9.dragonmounts.client.ClientBreedSync;
 import com.github.kay9.dragonmounts.client.DragonEggRenderer;
 import com.github.kay9.dragonmounts.client.DragonModel;
 import com.github.kay9.dragonmounts.client.DragonRenderer;
 import com.github.kay9.dragonmounts.client.EggEntityRenderer;
 import com.github.kay9.dragonmounts.data.BreedManager;
 import com.github.kay9.dragonmounts.dragon.DMLEggBlock;
+import com.github.kay9.dragonmounts.dragon.DragonEgg;
+import com.github.kay9.dragonmounts.dragon.DragonLod;
 import com.github.kay9.dragonmounts.dragon.DragonSpawnEgg;
 import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import com.github.kay9.dragonmounts.dragon.ai.MateRegistry;
+import com.github.kay9.dragonmounts.habitats.ColumnTemperatureCache;
+import com.github.kay9.dragonmounts.habitats.HabitatScheduler;
+import com.github.kay9.dragonmounts.network.BreedDigestPacket;
+import com.github.kay9.dragonmounts.network.BreedSync;
+import com.github.kay9.dragonmounts.network.DragonStatePacket;
+import com.github.kay9.dragonmounts.network.DragonStateSync;
+import com.github.kay9.dragonmounts.network.RequestBreedsPacket;
 import com.github.kay9.dragonmounts.network.UpdateBreedsPacket;
+import com.github.kay9.dragonmounts.util.BlockChangeTracker;
 import net.minecraft.client.Camera;
 import net.minecraft.client.Minecraft;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.ForgeHooksClient;
 import net.minecraftforge.client.event.ColorHandlerEvent;
@@ -22,8 +37,13 @@ import net.minecraftforge.client.model.ForgeModelBakery;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.OnDatapackSyncEvent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.EntityAttributeCreationEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
@@ -50,12 +70,22 @@ public class DragonMountsLegacy
 
         MinecraftForge.EVENT_BUS.addListener((AddReloadListenerEvent e) -> e.addListener(BreedManager.INSTANCE));
         MinecraftForge.EVENT_BUS.addListener(DragonMountsLegacy::attemptVanillaEggReplacement);
+        MinecraftForge.EVENT_BUS.addListener(DragonMountsLegacy::onWorldUnload);
+        MinecraftForge.EVENT_BUS.addListener(DragonMountsLegacy::onWorldTick);
+        MinecraftForge.EVENT_BUS.addListener(DragonMountsLegacy::refreshBreeds);
+        MinecraftForge.EVENT_BUS.addListener((PlayerEvent.StartTracking e) -> DragonStateSync.startTracking((ServerPlayer) e.getPlayer(), e.getTarget()));
+        MinecraftForge.EVENT_BUS.addListener((PlayerEvent.StopTracking e) -> DragonStateSync.stopTracking((ServerPlayer) e.getPlayer(), e.getTarget()));
+        MinecraftForge.EVENT_BUS.addListener(DragonMountsLegacy::onServerTick);
+        MinecraftForge.EVENT_BUS.addListener((TagsUpdatedEvent e) -> GreenToesAbility.invalidateCaches());
+        MinecraftForge.EVENT_BUS.addListener((RegisterCommandsEvent e) -> DMLCommands.register(e.getDispatcher()));
 
         bus.addListener((EntityAttributeCreationEvent e) -> e.put(DMLRegistry.DRAGON.get(), TameableDragon.createAttributes().build()));
 
         if (FMLLoader.getDist() == Dist.CLIENT) // Client Events
         {
             MinecraftForge.EVENT_BUS.addListener((EntityViewRenderEvent.CameraSetup e) -> cameraAngles(e.getCamera()));
+            MinecraftForge.EVENT_BUS.addListener(ClientBreedSync::onLoggedIn);
+            MinecraftForge.EVENT_BUS.addListener(ClientBreedSync::onLoggedOut);
 
             bus.addListener((ModelRegistryEvent e) -> defineBlockModels());
             bus.addListener((ColorHandlerEvent.Item e) -> e.getItemColors().register(DragonSpawnEgg::getColor, DMLRegistry.SPAWN_EGG.get()));
@@ -63,7 +93,7 @@ public class DragonMountsLegacy
         }
         else // Server Events
         {
-            MinecraftForge.EVENT_BUS.addListener((OnDatapackSyncEvent e) -> UpdateBreedsPacket.send(e.getPlayer()));
+            MinecraftForge.EVENT_BUS.addListener((OnDatapackSyncEvent e) -> BreedSync.send(e.getPlayer()));
         }
 
         ModLoadingContext.get().registerConfig(ModConfig.Type.COMMON, DMLConfig.COMMON);
@@ -81,6 +111,47 @@ public class DragonMountsLegacy
         if (DMLEggBlock.overrideVanillaDragonEgg(evt.getWorld(), evt.getPos(), evt.getPlayer())) evt.setCanceled(true);
     }
 
+    private static void onWorldTick(TickEvent.WorldTickEvent evt)
+    {
+        if (evt.phase == TickEvent.Phase.END)
+        {
+            HabitatScheduler.tick(evt.world);
+            FootprintBatch.tick(evt.world);
+        }
+    }
+
+    /**
+     * Breed indices are reassigned on reload; point loaded entities at the new ones.
+     */
+    private static void refreshBreeds(OnDatapackSyncEvent evt)
+    {
+        if (evt.getPlayer() != null) return; // a player joining, nothing was reloaded
+
+        for (var level : evt.getPlayerList().getServer().getAllLevels())
+        {
+            for (var entity : level.getAllEntities())
+            {
+                if (entity instanceof TameableDragon dragon) dragon.refreshBreed();
+                else if (entity instanceof DragonEgg egg) egg.refreshBreed();
+            }
+        }
+    }
+
+    private static void onServerTick(TickEvent.ServerTickEvent evt)
+    {
+        if (evt.phase == TickEvent.Phase.END) DragonStateSync.flush();
+    }
+
+    private static void onWorldUnload(WorldEvent.Unload evt)
+    {
+        BlockChangeTracker.unload(evt.getWorld());
+        HabitatScheduler.unload(evt.getWorld());
+        MateRegistry.unload(evt.getWorld());
+        FootprintBatch.unload(evt.getWorld());
+        ColumnTemperatureCache.unload(evt.getWorld());
+        DragonLod.unload(evt.getWorld());
+    }
+
     private static void defineBlockModels()
     {
         var dir = "models/block/dragon_eggs";
@@ -128,7 +199,7 @@ public class DragonMountsLegacy
 
     static
     {
-        var PROTOCOL_VERSION = "1.O";
+        var PROTOCOL_VERSION = "1.4";
         NETWORK = NetworkRegistry.ChannelBuilder.named(id("network"))
                 .clientAcceptedVersions(PROTOCOL_VERSION::equals)
                 .serverAcceptedVersions(PROTOCOL_VERSION::equals)
@@ -136,5 +207,8 @@ public class DragonMountsLegacy
                 .simpleChannel();
 
         NETWORK.registerMessage(1, UpdateBreedsPacket.class, UpdateBreedsPacket::encode, UpdateBreedsPacket::new, UpdateBreedsPacket::handle);
+        NETWORK.registerMessage(2, BreedDigestPacket.class, BreedDigestPacket::encode, BreedDigestPacket::new, BreedDigestPacket::handle);
+        NETWORK.registerMessage(3, RequestBreedsPacket.class, RequestBreedsPacket::encode, RequestBreedsPacket::new, RequestBreedsPacket::handle);
+        NETWORK.registerMessage(4, DragonStatePacket.class, DragonStatePacket::encode, DragonStatePacket::new, DragonStatePacket::handle);
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.github.kay9.dragonmounts.abilities;
 
 import com.github.kay9.dragonmounts.dragon.TameableDragon;
 import com.mojang.serialization.Codec;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.phys.Vec3;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,6 +18,13 @@ public interface Ability
     String GREEN_TOES = register("green_toes", GreenToesAbility.CODEC);
     String SNOW_STEPPER = register("snow_stepper", SnowStepperAbility.CODEC);
 
+    // Hooks an ability can subscribe to. See Ability#hooks
+    int TICK = 1;
+    int MOVE = 1 << 1;
+    int LAND = 1 << 2;
+    int TAKEOFF = 1 << 3;
+    int RIDER_INPUT = 1 << 4;
+
     static String register(String name, Codec<? extends Ability> codec)
     {
         REGISTRY.put(name, codec);
@@ -30,5 +39,30 @@ public interface Ability
 
     default void onMove(TameableDragon dragon) {}
 
+    /**
+     * Called on the server when the dragon touches down after flying.
+     */
+    default void onLand(TameableDragon dragon) {}
+
+    /**
+     * Called on the server when the dragon starts flying.
+     */
+    default void onTakeoff(TameableDragon dragon) {}
+
+    /**
+     * Called on the server every tick the dragon is ridden, with the rider's input as (strafe, jump, forward).
+     */
+    default void onRiderInput(TameableDragon dragon, LivingEntity rider, Vec3 input) {}
+
+    /**
+     * The hooks this ability implements, as a combination of {@link Ability#TICK}, {@link Ability#MOVE}, etc.
+     * Only these are ever called; {@link Ability#initialize} and {@link Ability#close} always are.
+     * Defaults to the hooks that existed before this was introduced, so older abilities keep working.
+     */
+    default int hooks()
+    {
+        return TICK | MOVE;
+    }
+
     String type();
 }
@@ -2,9 +2,16 @@ package com.github.kay9.dragonmounts.abilities;
 
 import com.github.kay9.dragonmounts.dragon.TameableDragon;
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 
 public abstract class FootprintAbility implements Ability
 {
+    @Override
+    public int hooks()
+    {
+        return MOVE;
+    }
+
     @Override
     public void onMove(TameableDragon dragon)
     {
@@ -13,6 +20,8 @@ public abstract class FootprintAbility implements Ability
         var chance = getFootprintChance(dragon);
         if (chance == 0) return;
 
+        var batch = FootprintBatch.get((ServerLevel) dragon.level);
+
         for (int i = 0; i < 4; i++)
         {
             // place only if randomly selected
@@ -24,7 +33,7 @@ public abstract class FootprintAbility implements Ability
             double bz = dragon.getZ() + (i / 2f % 2 * 2 - 1) * 0.25f;
             var pos = new BlockPos(bx, by, bz);
 
-            placeFootprint(dragon, pos);
+            batch.add(this, dragon, pos);
         }
     }
 
@@ -33,5 +42,9 @@ public abstract class FootprintAbility implements Ability
         return 0.05f;
     }
 
+    /**
+     * Called by the {@link FootprintBatch} at the end of the tick the footprint was left in.
+     * Particles should go through {@link FootprintBatch#addParticles} too.
+     */
     protected abstract void placeFootprint(TameableDragon dragon, BlockPos pos);
 }
@@ -0,0 +1,131 @@
+package com.github.kay9.dragonmounts.abilities;
+
+import com.github.kay9.dragonmounts.DMLConfig;
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.particles.ParticleOptions;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.LevelAccessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collects the footprints dragons leave in a level over a tick and places them all at the end of it.
+ * <p>
+ * At most {@link DMLConfig#footprintLimit()} distinct positions are queued per tick; the rest are dropped, so stampedes stay cheap.
+ * Block changes in the same chunk section already go out as one packet per tick, but every particle burst would be
+ * a packet of its own, so bursts of the same particle and speed within a chunk are merged into one.
+ */
+public class FootprintBatch
+{
+    private static final Map<LevelAccessor, FootprintBatch> BATCHES = new WeakHashMap<>();
+
+    private final List<Footprint> footprints = new ArrayList<>();
+    private final LongSet positions = new LongOpenHashSet();
+    private final Map<ParticleKey, ParticleBurst> particles = new LinkedHashMap<>();
+    private long dropped;
+
+    public static FootprintBatch get(ServerLevel level)
+    {
+        return BATCHES.computeIfAbsent(level, l -> new FootprintBatch());
+    }
+
+    public static void tick(LevelAccessor level)
+    {
+        var batch = BATCHES.get(level);
+        if (batch != null && level instanceof ServerLevel serverLevel) batch.flush(serverLevel);
+    }
+
+    public static void unload(LevelAccessor level)
+    {
+        BATCHES.remove(level);
+    }
+
+    /**
+     * Queue a footprint to be placed at the end of this tick.
+     */
+    public void add(FootprintAbility ability, TameableDragon dragon, BlockPos pos)
+    {
+        var key = pos.asLong();
+        if (positions.contains(key)) return; // already stepped on this tick; doesn't count against the limit
+        if (footprints.size() >= DMLConfig.footprintLimit())
+        {
+            dropped++;
+            return;
+        }
+        positions.add(key);
+        footprints.add(new Footprint(ability, dragon, pos));
+    }
+
+    /**
+     * Show particles at the end of this tick, merged with others of the same kind and speed in the chunk.
+     */
+    public void addParticles(ParticleOptions particle, double x, double y, double z, int count, double speed)
+    {
+        var key = new ParticleKey(particle, speed, SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z));
+        var burst = particles.get(key);
+        if (burst == null) particles.put(key, new ParticleBurst(x, y, z, count));
+        else burst.add(x, y, z, count);
+    }
+
+    /**
+     * Total number of footprints dropped for going over the per tick limit.
+     */
+    public long dropped()
+    {
+        return dropped;
+    }
+
+    private void flush(ServerLevel level)
+    {
+        if (footprints.isEmpty()) return;
+
+        for (var footprint : footprints)
+            if (!footprint.dragon().isRemoved()) footprint.ability().placeFootprint(footprint.dragon(), footprint.pos());
+        footprints.clear();
+        positions.clear();
+
+        particles.forEach((key, burst) -> level.sendParticles(key.particle(),
+                (burst.minX + burst.maxX) / 2, (burst.minY + burst.maxY) / 2, (burst.minZ + burst.maxZ) / 2,
+                burst.count,
+                0.5 + (burst.maxX - burst.minX) / 2, 0.5 + (burst.maxY - burst.minY) / 2, 0.5 + (burst.maxZ - burst.minZ) / 2,
+                key.speed()));
+        particles.clear();
+    }
+
+    private record Footprint(FootprintAbility ability, TameableDragon dragon, BlockPos pos) {}
+
+    private record ParticleKey(ParticleOptions particle, double speed, int chunkX, int chunkZ) {}
+
+    private static class ParticleBurst
+    {
+        private double minX, minY, minZ, maxX, maxY, maxZ;
+        private int count;
+
+        private ParticleBurst(double x, double y, double z, int count)
+        {
+            minX = maxX = x;
+            minY = maxY = y;
+            minZ = maxZ = z;
+            this.count = count;
+        }
+
+        private void add(double x, double y, double z, int count)
+        {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+            this.count += count;
+        }
+    }
+}
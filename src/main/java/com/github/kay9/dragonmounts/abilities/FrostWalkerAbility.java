@@ -2,14 +2,54 @@ package com.github.kay9.dragonmounts.abilities;
 
 import com.github.kay9.dragonmounts.dragon.TameableDragon;
 import com.mojang.serialization.Codec;
-import net.minecraft.world.item.enchantment.FrostWalkerEnchantment;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.LiquidBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.Material;
 import net.minecraft.world.level.pathfinder.BlockPathTypes;
+import net.minecraft.world.phys.shapes.CollisionContext;
+import net.minecraftforge.common.util.BlockSnapshot;
+import net.minecraftforge.event.ForgeEventFactory;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Freezes water around the dragon's feet, like the Frost Walker enchantment.
+ * <p>
+ * Unlike the enchantment, which checks the whole disk of water below the walker on every step,
+ * each dragon remembers where it last froze from: a step only checks the edge of the disk it moved into.
+ * Ice it froze is checked again once it could have melted, and water it couldn't freeze (something in the way,
+ * not a source yet) is retried every step, as long as either is still under the dragon.
+ */
 public class FrostWalkerAbility implements Ability
 {
     public static final FrostWalkerAbility INSTANCE = new FrostWalkerAbility();
     public static final Codec<FrostWalkerAbility> CODEC = Codec.unit(INSTANCE);
 
+    private static final BlockState ICE = Blocks.FROSTED_ICE.defaultBlockState();
+    private static final int MAX_RADIUS = 16;
+    private static final int MIN_MELT_TICKS = 60; // frosted ice doesn't melt any sooner than this
+    private static final int[][] DISK_WIDTHS = new int[MAX_RADIUS + 1][]; // half-width of each row of a disk, by radius
+
+    static
+    {
+        for (int r = 0; r <= MAX_RADIUS; r++)
+        {
+            DISK_WIDTHS[r] = new int[r * 2 + 1];
+            for (int dz = -r; dz <= r; dz++) DISK_WIDTHS[r][dz + r] = (int) Math.sqrt(r * r - dz * dz);
+        }
+    }
+
+    private final Map<TameableDragon, Trail> trails = new WeakHashMap<>();
+
     @Override
     public void initialize(TameableDragon dragon)
     {
@@ -20,13 +60,22 @@ public class FrostWalkerAbility implements Ability
     public void close(TameableDragon dragon)
     {
         dragon.setPathfindingMalus(BlockPathTypes.WATER, BlockPathTypes.WATER.getMalus());
+        trails.remove(dragon);
+    }
+
+    @Override
+    public int hooks()
+    {
+        return MOVE;
     }
 
     @Override
     public void onMove(TameableDragon dragon)
     {
-        if (!dragon.level.isClientSide() && dragon.isAdult())
-            FrostWalkerEnchantment.onEntityMoved(dragon, dragon.level, dragon.blockPosition(), (int) Math.max(3 * dragon.getScale(), 1));
+        if (dragon.level.isClientSide() || !dragon.isAdult() || !dragon.isOnGround()) return;
+
+        var radius = Math.min(MAX_RADIUS, 2 + (int) Math.max(3 * dragon.getScale(), 1));
+        trails.computeIfAbsent(dragon, d -> new Trail()).step(dragon, radius);
     }
 
     @Override
@@ -34,4 +83,113 @@ public class FrostWalkerAbility implements Ability
     {
         return Ability.FROST_WALKER;
     }
+
+    private static class Trail
+    {
+        private final BlockPos.MutableBlockPos pointer = new BlockPos.MutableBlockPos();
+        private final LongArrayFIFOQueue frozen = new LongArrayFIFOQueue(); // positions frozen, oldest first
+        private final LongArrayFIFOQueue frozenAt = new LongArrayFIFOQueue(); // and when
+        private final LongSet rejected = new LongOpenHashSet(); // water within the disk that couldn't be frozen yet
+        private int x, y, z;
+        private int radius = -1;
+
+        private void step(TameableDragon dragon, int radius)
+        {
+            var pos = dragon.blockPosition();
+            int nx = pos.getX(), ny = pos.getY() - 1, nz = pos.getZ();
+            var widths = DISK_WIDTHS[radius];
+
+            if (radius != this.radius || ny != y || Math.abs(nx - x) > 1 || Math.abs(nz - z) > 1)
+            {
+                // changed size, height, or jumped; nothing we checked before tells us anything
+                rejected.clear();
+                for (int dz = -radius; dz <= radius; dz++)
+                    freezeRow(dragon, nx - widths[dz + radius], nx + widths[dz + radius], ny, nz + dz);
+            }
+            else
+            {
+                retryRejected(dragon, nx, ny, nz, radius);
+
+                // only the parts of each row outside the old disk are new
+                for (int dz = -radius; dz <= radius; dz++)
+                {
+                    int min = nx - widths[dz + radius], max = nx + widths[dz + radius];
+                    int oldDz = nz + dz - z;
+                    if (oldDz < -radius || oldDz > radius)
+                    {
+                        freezeRow(dragon, min, max, ny, nz + dz);
+                        continue;
+                    }
+                    int oldMin = x - widths[oldDz + radius], oldMax = x + widths[oldDz + radius];
+                    freezeRow(dragon, min, Math.min(max, oldMin - 1), ny, nz + dz);
+                    freezeRow(dragon, Math.max(min, oldMax + 1), max, ny, nz + dz);
+                }
+            }
+
+            x = nx;
+            y = ny;
+            z = nz;
+            this.radius = radius;
+
+            refreezeMelted(dragon);
+        }
+
+        private void retryRejected(TameableDragon dragon, int x, int y, int z, int radius)
+        {
+            for (var it = rejected.iterator(); it.hasNext();)
+            {
+                var pos = it.nextLong();
+                int px = BlockPos.getX(pos), pz = BlockPos.getZ(pos);
+                int dx = px - x, dz = pz - z;
+                if (dx * dx + dz * dz > radius * radius || !freeze(dragon, px, y, pz)) it.remove(); // left behind, frozen, or gone
+            }
+        }
+
+        private void refreezeMelted(TameableDragon dragon)
+        {
+            var time = dragon.level.getGameTime();
+            var count = frozen.size(); // anything refrozen goes to the back; don't get to it again this step
+            while (count-- > 0 && time - frozenAt.firstLong() >= MIN_MELT_TICKS)
+            {
+                var pos = frozen.dequeueLong();
+                frozenAt.dequeueLong();
+
+                int dx = BlockPos.getX(pos) - x, dz = BlockPos.getZ(pos) - z;
+                if (BlockPos.getY(pos) == y && dx * dx + dz * dz <= radius * radius) // still underfoot
+                    freeze(dragon, BlockPos.getX(pos), y, BlockPos.getZ(pos));
+            }
+        }
+
+        private void freezeRow(TameableDragon dragon, int minX, int maxX, int y, int z)
+        {
+            for (int x = minX; x <= maxX; x++)
+                if (freeze(dragon, x, y, z)) rejected.add(BlockPos.asLong(x, y, z));
+        }
+
+        /**
+         * Mirrors FrostWalkerEnchantment#onEntityMoved.
+         *
+         * @return true if there's water here that can't be frozen right now, but might be later
+         */
+        private boolean freeze(TameableDragon dragon, int x, int y, int z)
+        {
+            Level level = dragon.level;
+            var water = level.getBlockState(pointer.set(x, y, z));
+            if (water.getMaterial() != Material.WATER) return false;
+            if (water.getBlock() != Blocks.WATER || water.getValue(LiquidBlock.LEVEL) != 0) return true; // may still become a source
+
+            if (!level.getBlockState(pointer.set(x, y + 1, z)).isAir()) return true;
+            pointer.set(x, y, z);
+            if (!ICE.canSurvive(level, pointer) || !level.isUnobstructed(ICE, pointer, CollisionContext.empty())) return true;
+
+            var pos = pointer.immutable();
+            if (ForgeEventFactory.onBlockPlace(dragon, BlockSnapshot.create(level.dimension(), level, pos), Direction.UP)) return true;
+
+            level.setBlockAndUpdate(pos, ICE);
+            level.scheduleTick(pos, Blocks.FROSTED_ICE, Mth.nextInt(dragon.getRandom(), 60, 120));
+            frozen.enqueue(pos.asLong());
+            frozenAt.enqueue(level.getGameTime());
+            return false;
+        }
+    }
 }
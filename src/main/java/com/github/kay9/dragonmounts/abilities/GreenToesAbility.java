@@ -2,21 +2,55 @@ package com.github.kay9.dragonmounts.abilities;
 
 import com.github.kay9.dragonmounts.dragon.TameableDragon;
 import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.tags.BlockTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.List;
+
 public class GreenToesAbility extends FootprintAbility
 {
-    public static final GreenToesAbility INSTANCE = new GreenToesAbility();
-    public static final Codec<GreenToesAbility> CODEC = Codec.unit(INSTANCE);
+    public static final GreenToesAbility INSTANCE = new GreenToesAbility(BlockTags.SMALL_FLOWERS, List.of(Blocks.WITHER_ROSE), List.of(Blocks.RED_MUSHROOM, Blocks.BROWN_MUSHROOM));
+    public static final Codec<GreenToesAbility> CODEC = RecordCodecBuilder.create(func -> func.group(
+            TagKey.hashedCodec(Registry.BLOCK_REGISTRY).optionalFieldOf("flowers", INSTANCE.flowers).forGetter(a -> a.flowers),
+            Registry.BLOCK.byNameCodec().listOf().optionalFieldOf("excluded_flowers", INSTANCE.excludedFlowers).forGetter(a -> a.excludedFlowers),
+            Registry.BLOCK.byNameCodec().listOf().optionalFieldOf("mushrooms", INSTANCE.mushrooms).forGetter(a -> a.mushrooms)
+    ).apply(func, GreenToesAbility::new));
     private static final int GRASS_LIGHT_THRESHOLD = 4;
 
+    private static volatile int tagGeneration; // bumped on tag reloads, invalidating every cached flower pool
+
+    private final TagKey<Block> flowers; // placed on dirt-like blocks
+    private final List<Block> excludedFlowers;
+    private final List<Block> mushrooms; // placed on mushroom growing blocks
+    private final BlockState[] mushroomStates;
+    private BlockState[] flowerStates;
+    private int flowerGeneration = -1;
+
+    public GreenToesAbility(TagKey<Block> flowers, List<Block> excludedFlowers, List<Block> mushrooms)
+    {
+        this.flowers = flowers;
+        this.excludedFlowers = excludedFlowers;
+        this.mushrooms = mushrooms;
+        this.mushroomStates = mushrooms.stream().map(Block::defaultBlockState).toArray(BlockState[]::new);
+    }
+
+    /**
+     * Tags were reloaded; flower pools need to be resolved again.
+     */
+    public static void invalidateCaches()
+    {
+        tagGeneration++;
+    }
+
     // grow mushrooms and plants
     @Override
     protected void placeFootprint(TameableDragon dragon, BlockPos pos)
@@ -32,29 +66,41 @@ public class GreenToesAbility extends FootprintAbility
         }
         if (!level.getBlockState(pos).isAir()) return; // place only on empty space
 
-        BlockState placing = null;
+        BlockState[] pool = null;
 
-        if (steppingOn.is(BlockTags.MUSHROOM_GROW_BLOCK))
-            placing = (level.getRandom().nextBoolean()? Blocks.RED_MUSHROOM : Blocks.BROWN_MUSHROOM).defaultBlockState();
-        else if (steppingOn.is(BlockTags.DIRT)) // different from the actual dirt block. Could be grass or moss
-        {
-            placing = Registry.BLOCK
-                    .getTag(BlockTags.SMALL_FLOWERS)
-                    .flatMap(tag -> tag.getRandomElement(dragon.getRandom()))
-                    .map(Holder::value)
-                    .filter(b -> b != Blocks.WITHER_ROSE)
-                    .orElse(Blocks.DANDELION)
-                    .defaultBlockState();
-        }
+        if (steppingOn.is(BlockTags.MUSHROOM_GROW_BLOCK)) pool = mushroomStates;
+        else if (steppingOn.is(BlockTags.DIRT)) pool = getFlowerStates(); // different from the actual dirt block. Could be grass or moss
+
+        if (pool == null || pool.length == 0) return;
 
-        if (placing != null && placing.canSurvive(level, pos))
+        var placing = pool[dragon.getRandom().nextInt(pool.length)];
+        if (placing.canSurvive(level, pos))
         {
             level.setBlockAndUpdate(pos, placing);
-            ((ServerLevel) level).sendParticles(ParticleTypes.HAPPY_VILLAGER,
+            FootprintBatch.get((ServerLevel) level).addParticles(ParticleTypes.HAPPY_VILLAGER,
                     pos.getX(), pos.getY(), pos.getZ(),
                     dragon.getRandom().nextInt(4) + 2,
-                    0.5, 0.5, 0.5, 1);
+                    1);
+        }
+    }
+
+    private BlockState[] getFlowerStates()
+    {
+        var generation = tagGeneration;
+        if (flowerStates == null || flowerGeneration != generation)
+        {
+            // excluded flowers stay in the pool as dandelions, so each pick is as likely as drawing from the tag itself
+            var states = Registry.BLOCK.getTag(flowers)
+                    .stream()
+                    .flatMap(tag -> tag.stream())
+                    .map(Holder::value)
+                    .map(b -> excludedFlowers.contains(b)? Blocks.DANDELION : b)
+                    .map(Block::defaultBlockState)
+                    .toArray(BlockState[]::new);
+            flowerStates = states.length == 0? new BlockState[] {Blocks.DANDELION.defaultBlockState()} : states;
+            flowerGeneration = generation;
         }
+        return flowerStates;
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.github.kay9.dragonmounts.abilities;
 
 import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import com.github.kay9.dragonmounts.habitats.ColumnTemperatureCache;
 import com.mojang.serialization.Codec;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.particles.ParticleTypes;
@@ -19,18 +20,17 @@ public class SnowStepperAbility extends FootprintAbility
         if (dragon.level.getBlockState(pos).isAir() && state.canSurvive(dragon.level, pos))
         {
             dragon.level.setBlockAndUpdate(pos, state);
-            ((ServerLevel) dragon.level).sendParticles(ParticleTypes.SNOWFLAKE,
+            FootprintBatch.get((ServerLevel) dragon.level).addParticles(ParticleTypes.SNOWFLAKE,
                     pos.getX() + 0.5, pos.getY(), pos.getZ() + 0.5,
                     dragon.getRandom().nextInt(6) + 2,
-                    0.5, 0.5, 0.5, 0);
+                    0);
         }
     }
 
     @Override
     protected float getFootprintChance(TameableDragon dragon)
     {
-        var pos = dragon.blockPosition();
-        return dragon.level.getBiome(pos).value().coldEnoughToSnow(pos)? 0.5f : 0;
+        return ColumnTemperatureCache.get(dragon.level).isColdEnoughToSnow(dragon.blockPosition())? 0.5f : 0;
     }
 
     @Override
@@ -0,0 +1,50 @@
+package com.github.kay9.dragonmounts.client;
+
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.dragon.DragonEgg;
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import com.github.kay9.dragonmounts.network.BreedSync;
+import com.google.common.hash.Hashing;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client side hooks of {@link BreedSync}.
+ */
+public class ClientBreedSync
+{
+    public static void onLoggedIn(ClientPlayerNetworkEvent.LoggedInEvent evt)
+    {
+        var server = Minecraft.getInstance().getCurrentServer();
+        if (server == null) // singleplayer; breeds are shared with the integrated server
+        {
+            BreedSync.connect(null);
+            return;
+        }
+
+        var name = Hashing.murmur3_128().hashString(server.ip, StandardCharsets.UTF_8) + ".bin";
+        BreedSync.connect(Minecraft.getInstance().gameDirectory.toPath().resolve(DragonMountsLegacy.MOD_ID).resolve("breed_cache").resolve(name));
+    }
+
+    public static void onLoggedOut(ClientPlayerNetworkEvent.LoggedOutEvent evt)
+    {
+        BreedSync.disconnect();
+    }
+
+    /**
+     * Resolve the breeds of loaded dragons and eggs again, after the breed registry was replaced.
+     */
+    public static void refreshEntities()
+    {
+        var level = Minecraft.getInstance().level;
+        if (level == null) return;
+
+        for (var entity : level.entitiesForRendering())
+        {
+            if (entity instanceof TameableDragon dragon) dragon.refreshBreed();
+            else if (entity instanceof DragonEgg egg) egg.refreshBreed();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.kay9.dragonmounts.client;
+
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import com.github.kay9.dragonmounts.network.DragonStatePacket;
+import com.github.kay9.dragonmounts.network.DragonStateSync;
+import net.minecraft.client.Minecraft;
+
+import java.util.List;
+
+/**
+ * Client side of {@link DragonStateSync}.
+ */
+public class ClientDragonStateSync
+{
+    public static void apply(List<DragonStatePacket.Entry> entries)
+    {
+        var level = Minecraft.getInstance().level;
+        if (level == null) return;
+
+        for (var entry : entries)
+            if (level.getEntity(entry.entityId()) instanceof TameableDragon dragon)
+                dragon.applySyncedState(entry.breed(), entry.saddled(), entry.age(), entry.ageTime());
+    }
+}
@@ -70,17 +70,24 @@ public class DragonAnimator
     private final float[] wingArmGround = new float[3];
     private final float[] wingForearmGround = new float[3];
 
+    // Y rotation angles for wing fingers, folded and unfolded
+    static final float[] Y_WING_FINGER_FOLD = {2.7f, 2.8f, 2.9f, 3.0f};
+    static final float[] Y_WING_FINGER_UNFOLD = {0.1f, 0.9f, 1.7f, 2.5f};
+
+    // final Y rotation angles for wing fingers
+    private final float[] wingFingerY = new float[4];
+
     // final X rotation angles for ground
     private final float[] xGround = {0, 0, 0, 0};
 
     // X rotation angles for ground
     // 1st dim - front, hind
     // 2nd dim - thigh, crus, foot, toe
-    private final float[][] xGroundStand = {
+    static final float[][] X_GROUND_STAND = {
             {0.8f, -1.5f, 1.3f, 0},
             {-0.3f, 1.5f, -0.2f, 0},
     };
-    private final float[][] xGroundSit = {
+    static final float[][] X_GROUND_SIT = {
             {0.3f, -1.8f, 1.8f, 0},
             {-0.8f, 1.8f, -0.9f, 0},
     };
@@ -89,7 +96,7 @@ public class DragonAnimator
     // 1st dim - animation keyframe
     // 2nd dim - front, hind
     // 3rd dim - thigh, crus, foot, toe
-    private final float[][][] xGroundWalk = {{
+    static final float[][][] X_GROUND_WALK = {{
             {0.4f, -1.4f, 1.3f, 0},    // move down and forward
             {0.1f, 1.2f, -0.5f, 0}     // move back
     }, {
@@ -104,9 +111,9 @@ public class DragonAnimator
     private final float[] xGroundWalk2 = {0, 0, 0, 0};
 
     // Y rotation angles for ground, thigh only
-    private final float[] yGroundStand = {-0.25f, 0.25f};
-    private final float[] yGroundSit = {0.1f, 0.35f};
-    private final float[] yGroundWalk = {-0.1f, 0.1f};
+    static final float[] Y_GROUND_STAND = {-0.25f, 0.25f};
+    static final float[] Y_GROUND_SIT = {0.1f, 0.35f};
+    static final float[] Y_GROUND_WALK = {-0.1f, 0.1f};
 
     // X rotation angles for air
     // 1st dim - front, hind
@@ -114,7 +121,13 @@ public class DragonAnimator
     private final float[][] xAirAll = {{0, 0, 0, 0}, {0, 0, 0, 0}};
 
     // Y rotation angles for air, thigh only
-    private final float[] yAirAll = {-0.1f, 0.1f};
+    private static final float[] Y_AIR_ALL = {-0.1f, 0.1f};
+
+    // final rotation angles for each leg
+    // 1st dim - leg, see animLegs
+    // 2nd dim - thigh, crus, foot, toe
+    private final float[][] legX = new float[4][4];
+    private final float[] legY = new float[4];
 
     public DragonAnimator(TameableDragon dragon)
     {
@@ -147,36 +160,48 @@ public class DragonAnimator
      */
     public void animate(DragonModel model)
     {
-        anim = animTimer.get(partialTicks);
-        ground = groundTimer.get(partialTicks);
-        flutter = flutterTimer.get(partialTicks);
-        walk = walkTimer.get(partialTicks);
-        sit = sitTimer.get(partialTicks);
-        jaw = jawTimer.get(partialTicks);
-        speed = speedTimer.get(partialTicks);
-
-        animBase = anim * ((float) Math.PI) * 2;
-        cycleOfs = Mth.sin(animBase - 1) + 1;
+        pose(animTimer.get(partialTicks), groundTimer.get(partialTicks), flutterTimer.get(partialTicks),
+                walkTimer.get(partialTicks), sitTimer.get(partialTicks), jawTimer.get(partialTicks), speedTimer.get(partialTicks));
 
         // check if the wings are moving down and trigger the event
-        boolean newWingsDown = cycleOfs > 1;
+        boolean newWingsDown = Mth.sin(animBase - 1) + 1 > 1;
         if (newWingsDown && !wingsDown && flutter != 0) dragon.onWingsDown(speed);
         wingsDown = newWingsDown;
 
         // update flags
         model.back.visible = !dragon.isSaddled();
 
+        // animate body parts
+        animHeadAndNeck(model);
+        animTail(model);
+        animWings(model);
+        animLegs(model);
+    }
+
+    /**
+     * The part of {@link #animate} that needs neither the dragon nor the model: the animation cycle, and the wing
+     * and leg angles from the given timer values.
+     */
+    void pose(float anim, float ground, float flutter, float walk, float sit, float jaw, float speed)
+    {
+        this.anim = anim;
+        this.ground = ground;
+        this.flutter = flutter;
+        this.walk = walk;
+        this.sit = sit;
+        this.jaw = jaw;
+        this.speed = speed;
+
+        animBase = anim * ((float) Math.PI) * 2;
+        cycleOfs = Mth.sin(animBase - 1) + 1;
         cycleOfs = (cycleOfs * cycleOfs + cycleOfs * 2) * 0.05f;
 
         // reduce up/down amplitude
         cycleOfs *= Mth.clampedLerp(0.5f, 1, flutter);
         cycleOfs *= Mth.clampedLerp(1, 0.5f, ground);
 
-        // animate body parts
-        animHeadAndNeck(model);
-        animTail(model);
-        animWings(model);
-        animLegs(model);
+        poseWings();
+        poseLegs();
     }
 
     public void tick()
@@ -330,6 +355,27 @@ public class DragonAnimator
     }
 
     protected void animWings(DragonModel model)
+    {
+        // apply angles
+        model.wingArm.xRot = wingArm[0];
+//        model.wingArm.xRot += 1 - speed;
+        model.wingArm.yRot = wingArm[1];
+        model.wingArm.zRot = wingArm[2];
+
+        model.wingForearm.xRot = wingForearm[0];
+        model.wingForearm.yRot = wingForearm[1];
+        model.wingForearm.zRot = wingForearm[2];
+
+        // set wing finger angles
+        float rotX = 0;
+        for (int i = 0; i < model.wingFinger.length; i++)
+        {
+            model.wingFinger[i].xRot = rotX += 0.005f; // reduce Z-fighting
+            model.wingFinger[i].yRot = wingFingerY[i];
+        }
+    }
+
+    private void poseWings()
     {
         // move wings slower while sitting
         float aSpeed = sit > 0? 0.6f : 1;
@@ -384,34 +430,23 @@ public class DragonAnimator
         slerpArrays(wingArm, wingArmGround, wingArm, ground);
         slerpArrays(wingForearm, wingForearmGround, wingForearm, ground);
 
-        // apply angles
-        model.wingArm.xRot = wingArm[0];
-//        model.wingArm.xRot += 1 - speed;
-        model.wingArm.yRot = wingArm[1];
-        model.wingArm.zRot = wingArm[2];
-
-        model.wingForearm.xRot = wingForearm[0];
-        model.wingForearm.yRot = wingForearm[1];
-        model.wingForearm.zRot = wingForearm[2];
-
-        // interpolate between folded and unfolded wing angles
-        float[] yFold = new float[]{2.7f, 2.8f, 2.9f, 3.0f};
-        float[] yUnfold = new float[]{0.1f, 0.9f, 1.7f, 2.5f};
-
-        // set wing finger angles
-        float rotX = 0;
+        // wing finger angles
         float rotYOfs = Mth.sin(a1) * Mth.sin(a2) * 0.03f;
         float rotYMulti = 1;
 
-        for (int i = 0; i < model.wingFinger.length; i++)
+        for (int i = 0; i < wingFingerY.length; i++)
         {
-            model.wingFinger[i].xRot = rotX += 0.005f; // reduce Z-fighting
-            model.wingFinger[i].yRot = terpSmoothStep(yUnfold[i],
-                    yFold[i] + rotYOfs * rotYMulti, ground);
+            wingFingerY[i] = wingFingerYRot(i, rotYOfs * rotYMulti, ground);
             rotYMulti -= 0.2f;
         }
     }
 
+    // interpolate between folded and unfolded wing angles
+    static float wingFingerYRot(int finger, float foldOffset, float ground)
+    {
+        return terpSmoothStep(Y_WING_FINGER_UNFOLD[finger], Y_WING_FINGER_FOLD[finger] + foldOffset, ground);
+    }
+
     protected void animTail(DragonModel model)
     {
         model.tail.x = 0;
@@ -483,23 +518,6 @@ public class DragonAnimator
 
     protected void animLegs(DragonModel model)
     {
-        // dangling legs for flying
-        if (ground < 1)
-        {
-            float footAirOfs = cycleOfs * 0.1f;
-            float footAirX = 0.75f + cycleOfs * 0.1f;
-
-            xAirAll[0][0] = 1.3f + footAirOfs;
-            xAirAll[0][1] = -(0.7f * speed + 0.1f + footAirOfs);
-            xAirAll[0][2] = footAirX;
-            xAirAll[0][3] = footAirX * 0.5f;
-
-            xAirAll[1][0] = footAirOfs + 0.6f;
-            xAirAll[1][1] = footAirOfs + 0.8f;
-            xAirAll[1][2] = footAirX;
-            xAirAll[1][3] = footAirX * 0.5f;
-        }
-
         // 0 - front leg, right side
         // 1 - hind leg, right side
         // 2 - front leg, left side
@@ -527,48 +545,89 @@ public class DragonAnimator
                 thigh.z = 46;
             }
 
-            // final X rotation angles for air
-            float[] xAir = xAirAll[i % 2];
+            thigh.yRot = legY[i];
+            thigh.xRot = legX[i][0];
+            crus.xRot = legX[i][1];
+            foot.xRot = legX[i][2];
+            toe.xRot = legX[i][3];
 
-            // interpolate between sitting and standing
-            slerpArrays(xGroundStand[i % 2], xGroundSit[i % 2], xGround, sit);
+            // update proxy
+            model.thighProxy[i].update();
+        }
+    }
 
-            // align the toes so they're always horizontal on the ground
-            xGround[3] = -(xGround[0] + xGround[1] + xGround[2]);
+    private void poseLegs()
+    {
+        // dangling legs for flying
+        if (ground < 1)
+        {
+            float footAirOfs = cycleOfs * 0.1f;
+            float footAirX = 0.75f + cycleOfs * 0.1f;
 
-            // apply walking cycle
-            if (walk > 0)
-            {
-                // interpolate between the keyframes, based on the cycle
-                splineArrays(moveTime * 0.2f, i > 1, xGroundWalk2,
-                        xGroundWalk[0][i % 2], xGroundWalk[1][i % 2], xGroundWalk[2][i % 2]);
-                // align the toes so they're always horizontal on the ground
-                xGroundWalk2[3] -= xGroundWalk2[0] + xGroundWalk2[1] + xGroundWalk2[2];
+            xAirAll[0][0] = 1.3f + footAirOfs;
+            xAirAll[0][1] = -(0.7f * speed + 0.1f + footAirOfs);
+            xAirAll[0][2] = footAirX;
+            xAirAll[0][3] = footAirX * 0.5f;
 
-                slerpArrays(xGround, xGroundWalk2, xGround, walk);
-            }
+            xAirAll[1][0] = footAirOfs + 0.6f;
+            xAirAll[1][1] = footAirOfs + 0.8f;
+            xAirAll[1][2] = footAirX;
+            xAirAll[1][3] = footAirX * 0.5f;
+        }
 
-            float yAir = yAirAll[i % 2];
-            float yGround;
+        for (int i = 0; i < legX.length; i++)
+        {
+            // final X rotation angles for air
+            float[] xAir = xAirAll[i % 2];
 
-            // interpolate between sitting and standing
-            yGround = terpSmoothStep(yGroundStand[i % 2], yGroundSit[i % 2], sit);
+            legGroundXRots(i, sit, walk, moveTime, xGround, xGroundWalk2);
 
-            // interpolate between standing and walking
-            yGround = terpSmoothStep(yGround, yGroundWalk[i % 2], walk);
+            float yAir = Y_AIR_ALL[i % 2];
+            float yGround = legGroundYRot(i, sit, walk);
 
             // interpolate between flying and grounded
-            thigh.yRot = terpSmoothStep(yAir, yGround, ground);
-            thigh.xRot = terpSmoothStep(xAir[0], xGround[0], ground);
-            crus.xRot = terpSmoothStep(xAir[1], xGround[1], ground);
-            foot.xRot = terpSmoothStep(xAir[2], xGround[2], ground);
-            toe.xRot = terpSmoothStep(xAir[3], xGround[3], ground);
+            legY[i] = terpSmoothStep(yAir, yGround, ground);
+            for (int j = 0; j < xGround.length; j++) legX[i][j] = terpSmoothStep(xAir[j], xGround[j], ground);
+        }
+    }
 
-            // update proxy
-            model.thighProxy[i].update();
+    /**
+     * X rotations of a leg on the ground (thigh, crus, foot, toe), between standing, sitting and walking.
+     *
+     * @param walkCycle scratch space, same size as {@code result}
+     */
+    static void legGroundXRots(int leg, float sit, float walk, float moveTime, float[] result, float[] walkCycle)
+    {
+        // interpolate between sitting and standing
+        slerpArrays(X_GROUND_STAND[leg % 2], X_GROUND_SIT[leg % 2], result, sit);
+
+        // align the toes so they're always horizontal on the ground
+        result[3] = -(result[0] + result[1] + result[2]);
+
+        // apply walking cycle
+        if (walk > 0)
+        {
+            // interpolate between the keyframes, based on the cycle
+            splineArrays(moveTime * 0.2f, leg > 1, walkCycle, X_GROUND_WALK, leg % 2);
+            // align the toes so they're always horizontal on the ground
+            walkCycle[3] -= walkCycle[0] + walkCycle[1] + walkCycle[2];
+
+            slerpArrays(result, walkCycle, result, walk);
         }
     }
 
+    /**
+     * Y rotation of a thigh on the ground.
+     */
+    static float legGroundYRot(int leg, float sit, float walk)
+    {
+        // interpolate between sitting and standing
+        float yGround = terpSmoothStep(Y_GROUND_STAND[leg % 2], Y_GROUND_SIT[leg % 2], sit);
+
+        // interpolate between standing and walking
+        return terpSmoothStep(yGround, Y_GROUND_WALK[leg % 2], walk);
+    }
+
     public float getModelPitch()
     {
         return getModelPitch(partialTicks);
@@ -607,7 +666,7 @@ public class DragonAnimator
         this.openJaw = openJaw;
     }
 
-    private static void slerpArrays(float[] a, float[] b, float[] c, float x)
+    static void slerpArrays(float[] a, float[] b, float[] c, float x)
     {
         if (a.length != b.length || b.length != c.length)
         {
@@ -631,7 +690,7 @@ public class DragonAnimator
         }
     }
 
-    private static float terpSmoothStep(float a, float b, float x)
+    static float terpSmoothStep(float a, float b, float x)
     {
         if (x <= 0)
         {
@@ -645,23 +704,26 @@ public class DragonAnimator
         return a * (1 - x) + b * x;
     }
 
-    private static void splineArrays(float x, boolean shift, float[] result, float[]... nodes)
+    /**
+     * Loop through keyframes, {@code keyframes[n][leg]} being the angles of the given leg in the nth.
+     */
+    private static void splineArrays(float x, boolean shift, float[] result, float[][][] keyframes, int leg)
     {
-        int i1 = (int) x % nodes.length;
-        int i2 = (i1 + 1) % nodes.length;
-        int i3 = (i1 + 2) % nodes.length;
+        int i1 = (int) x % keyframes.length;
+        int i2 = (i1 + 1) % keyframes.length;
+        int i3 = (i1 + 2) % keyframes.length;
 
-        float[] a1 = nodes[i1];
-        float[] a2 = nodes[i2];
-        float[] a3 = nodes[i3];
+        float[] a1 = keyframes[i1][leg];
+        float[] a2 = keyframes[i2][leg];
+        float[] a3 = keyframes[i3][leg];
 
-        float xn = x % nodes.length - i1;
+        float xn = x % keyframes.length - i1;
 
         if (shift) terpCatmullRomSpline(xn, result, a2, a3, a1, a2);
         else terpCatmullRomSpline(xn, result, a1, a2, a3, a1);
     }
 
-    private static final float[][] CR = {
+    static final float[][] CR = {
             {-0.5f, 1.5f, -1.5f, 0.5f},
             {1.0f, -2.5f, 2.0f, -0.5f},
             {-0.5f, 0.0f, 0.5f, 0.0f},
@@ -669,33 +731,18 @@ public class DragonAnimator
     };
 
     // http://www.java-gaming.org/index.php?topic=24122.0
-    private static void terpCatmullRomSpline(float x, float[] result, float[]... knots)
+    // single span; the only spline we need
+    private static void terpCatmullRomSpline(float x, float[] result, float[] k0, float[] k1, float[] k2, float[] k3)
     {
-        int nknots = knots.length;
-        int nspans = nknots - 3;
-        int knot = 0;
-        if (nspans < 1)
-        {
-            throw new IllegalArgumentException("Spline has too few knots");
-        }
-        x = Mth.clamp(x, 0, 0.9999f) * nspans;
-
-        int span = (int) x;
-        if (span >= nknots - 3)
-        {
-            span = nknots - 3;
-        }
-
-        x -= span;
-        knot += span;
+        x = Mth.clamp(x, 0, 0.9999f);
 
         int dimension = result.length;
         for (int i = 0; i < dimension; i++)
         {
-            float knot0 = knots[knot][i];
-            float knot1 = knots[knot + 1][i];
-            float knot2 = knots[knot + 2][i];
-            float knot3 = knots[knot + 3][i];
+            float knot0 = k0[i];
+            float knot1 = k1[i];
+            float knot2 = k2[i];
+            float knot3 = k3[i];
 
             float c3 = CR[0][0] * knot0 + CR[0][1] * knot1 + CR[0][2] * knot2 + CR[0][3] * knot3;
             float c2 = CR[1][0] * knot0 + CR[1][1] * knot1 + CR[1][2] * knot2 + CR[1][3] * knot3;
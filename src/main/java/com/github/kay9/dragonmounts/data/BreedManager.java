@@ -2,10 +2,13 @@ package com.github.kay9.dragonmounts.data;
 
 import com.github.kay9.dragonmounts.DragonMountsLegacy;
 import com.github.kay9.dragonmounts.dragon.DragonBreed;
+import com.github.kay9.dragonmounts.habitats.HabitatPlan;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.SimpleJsonResourceReloadListener;
@@ -15,6 +18,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -22,7 +26,10 @@ import java.util.function.Consumer;
 public class BreedManager extends SimpleJsonResourceReloadListener
 {
     private static Map<ResourceLocation, DragonBreed> registry = Collections.emptyMap();
+    private static DragonBreed[] byIndex = new DragonBreed[0];
+    private static Object2IntMap<ResourceLocation> indices = new Object2IntOpenHashMap<>();
     private static DragonBreed fallback = DragonBreed.FIRE;
+    private static HabitatPlan habitatPlan = HabitatPlan.EMPTY;
 
     public static final BreedManager INSTANCE = new BreedManager();
 
@@ -38,7 +45,7 @@ public class BreedManager extends SimpleJsonResourceReloadListener
                 DragonBreed.CODEC.parse(JsonOps.INSTANCE, json)
                         .resultOrPartial(m -> DragonMountsLegacy.LOG.warn("Failed to load DragonBreed with id '{}': {}", key, m))
                         .ifPresent(r)));
-        DragonMountsLegacy.LOG.info("Loaded {} Dragon Breeds", registry.size());
+        DragonMountsLegacy.LOG.info("Loaded {} Dragon Breeds ({} distinct habitats)", registry.size(), habitatPlan.distinctHabitats());
     }
 
     public static void populate(Consumer<Consumer<DragonBreed>> registryFunc)
@@ -47,6 +54,14 @@ public class BreedManager extends SimpleJsonResourceReloadListener
         registryFunc.accept(d -> builder.put(d.id(), d));
         fallback = builder.computeIfAbsent(DragonBreed.FIRE.id(), i -> DragonBreed.FIRE); // Ensure one entry exists in the registry, for safety purposes.
         registry = ImmutableMap.copyOf(builder);
+
+        // sorted, so both sides assign the same indices to the same set of breeds
+        byIndex = registry.values().stream().sorted(Comparator.comparing(DragonBreed::id)).toArray(DragonBreed[]::new);
+        var indexMap = new Object2IntOpenHashMap<ResourceLocation>(byIndex.length);
+        for (int i = 0; i < byIndex.length; i++) indexMap.put(byIndex[i].id(), i);
+        indices = indexMap;
+
+        habitatPlan = HabitatPlan.compile(registry.values());
     }
 
     @Nonnull
@@ -72,8 +87,30 @@ public class BreedManager extends SimpleJsonResourceReloadListener
         return get(ResourceLocation.tryParse(breed));
     }
 
+    /**
+     * Returns the breed with the given index, or the fallback if there is none.
+     * Indices are only valid until the next reload; persist breeds by id instead.
+     */
+    public static DragonBreed byIndex(int index)
+    {
+        return index >= 0 && index < byIndex.length? byIndex[index] : getFallback();
+    }
+
+    /**
+     * Returns the compact network id of the given breed, or -1 if it isn't registered.
+     */
+    public static int getIndex(DragonBreed breed)
+    {
+        return indices.getOrDefault(breed.id(), -1);
+    }
+
     public static Collection<DragonBreed> getBreeds()
     {
         return registry.values();
     }
+
+    public static HabitatPlan getHabitatPlan()
+    {
+        return habitatPlan;
+    }
 }
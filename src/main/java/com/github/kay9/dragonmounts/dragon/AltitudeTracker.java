@@ -0,0 +1,91 @@
+package com.github.kay9.dragonmounts.dragon;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+/**
+ * Remembers the stretch of air below an entity, so its distance to the ground doesn't need to be walked block by block every tick.
+ * <p>
+ * Within one block column, the known clear stretch only grows: rising checks just the newly covered blocks, sinking checks nothing.
+ * Blocks above the {@link Heightmap.Types#MOTION_BLOCKING} heightmap are taken as clear without looking,
+ * so an entity far above the terrain costs a single heightmap lookup.
+ * The cache is dropped when the entity changes columns, when the ground below it is no longer solid,
+ * and every {@link AltitudeTracker#REFRESH_TICKS} to notice blocks placed in between.
+ */
+public class AltitudeTracker
+{
+    public static final int REFRESH_TICKS = 20;
+
+    private final Entity entity;
+    private final BlockPos.MutableBlockPos pointer = new BlockPos.MutableBlockPos();
+    private int x, z;
+    private long checkedAt = Long.MIN_VALUE;
+    private int clearTop, clearBottom; // every block in [clearBottom, clearTop] is known not to be solid
+    private boolean grounded; // whether the block right below clearBottom is known to stop the search
+
+    public AltitudeTracker(Entity entity)
+    {
+        this.entity = entity;
+    }
+
+    /**
+     * Returns the number of non-solid blocks between the entity's feet and solid ground, or {@code limit + 1} if there are more than {@code limit}.
+     */
+    public int getAltitude(int limit)
+    {
+        var level = entity.level;
+        var min = level.dimensionType().minY();
+        var top = entity.getBlockY() - 1;
+        if (top <= min) return 0;
+
+        var time = level.getGameTime();
+        if (entity.getBlockX() != x || entity.getBlockZ() != z || time - checkedAt >= REFRESH_TICKS || top < clearBottom - 1
+                || (grounded && clearBottom - 1 > min && !isSolid(clearBottom - 1)))
+        {
+            x = entity.getBlockX();
+            z = entity.getBlockZ();
+            checkedAt = time;
+            clearTop = top;
+            clearBottom = top + 1;
+            grounded = false;
+        }
+
+        // rose above what we know; only check the new blocks
+        for (int y = top; y > clearTop; y--)
+        {
+            if (isSolid(y))
+            {
+                clearBottom = y + 1;
+                grounded = true;
+                break;
+            }
+        }
+        clearTop = Math.max(clearTop, top);
+
+        if (!grounded && top - clearBottom + 1 <= limit)
+        {
+            // nothing above the surface can block us
+            var surface = level.getHeight(Heightmap.Types.MOTION_BLOCKING, x, z) - 1;
+            if (surface < clearBottom - 1) clearBottom = surface + 1;
+
+            for (int y = clearBottom - 1; top - y <= limit; y--)
+            {
+                if (y <= min || isSolid(y))
+                {
+                    grounded = true;
+                    break;
+                }
+                clearBottom = y;
+            }
+        }
+
+        var clear = top - clearBottom + 1;
+        return grounded? Math.min(clear, limit + 1) : limit + 1;
+    }
+
+    private boolean isSolid(int y)
+    {
+        return entity.level.getBlockState(pointer.set(x, y, z)).getMaterial().isSolid();
+    }
+}
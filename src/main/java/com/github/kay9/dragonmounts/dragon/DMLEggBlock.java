@@ -5,16 +5,19 @@ import com.github.kay9.dragonmounts.DMLRegistry;
 import com.github.kay9.dragonmounts.DragonMountsLegacy;
 import com.github.kay9.dragonmounts.client.DragonEggRenderer;
 import com.github.kay9.dragonmounts.data.BreedManager;
+import com.github.kay9.dragonmounts.habitats.HabitatSchedule;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.TranslatableComponent;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.LivingEntity;
@@ -23,7 +26,12 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.*;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.*;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.sounds.SoundEvents;
+import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityTicker;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.Material;
@@ -33,6 +41,7 @@ import net.minecraftforge.client.IItemRenderProperties;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Random;
 import java.util.function.Consumer;
 
 public class DMLEggBlock extends DragonEggBlock implements EntityBlock
@@ -55,13 +64,36 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
         BlockEntity entity = level.getBlockEntity(pos);
         if (entity instanceof Entity e)
         {
-            startHatching(e.getBreed(), e.getHatchTime(), level, pos);
-            level.setBlock(pos, Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS);
+            if (DMLConfig.hatchEggsAsBlocks())
+            {
+                if (e.isHatching()) return InteractionResult.PASS;
+                if (!level.isClientSide) e.startHatching();
+            }
+            else
+            {
+                startHatching(e.getBreed(), e.getHatchTime(), e.getCustomName(), level, pos);
+                level.setBlock(pos, Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS);
+            }
             return InteractionResult.sidedSuccess(level.isClientSide);
         }
         return InteractionResult.PASS;
     }
 
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type)
+    {
+        if (type != DMLRegistry.EGG_BLOCK_ENTITY.get()) return null;
+        return (BlockEntityTicker<T>) (BlockEntityTicker<Entity>) (level.isClientSide? Entity::clientTick : Entity::serverTick);
+    }
+
+    @Override
+    public void setPlacedBy(Level level, BlockPos pos, BlockState state, @Nullable LivingEntity placer, ItemStack stack)
+    {
+        if (stack.hasCustomHoverName() && level.getBlockEntity(pos) instanceof Entity e) e.setCustomName(stack.getHoverName());
+    }
+
     @Override
     public void attack(BlockState state, Level level, BlockPos at, Player player)
     {
@@ -80,20 +112,47 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
         startHatching(breed, DragonEgg.DEFAULT_HATCH_TIME, level, pos);
     }
 
+    // Same as FallingBlock, but keep the incubation state: FallingBlockEntity#fall removes the block entity.
     @Override
-    protected void falling(FallingBlockEntity falling)
+    public void tick(BlockState state, ServerLevel level, BlockPos pos, Random random)
     {
-        if (falling.level.getBlockEntity(falling.blockPosition()) instanceof Entity e)
-            falling.blockData = e.saveWithoutMetadata();
+        if (!isFree(level.getBlockState(pos.below())) || pos.getY() < level.getMinBuildHeight()) return;
+
+        var data = level.getBlockEntity(pos) instanceof Entity e? e.saveWithoutMetadata() : null;
+        var falling = FallingBlockEntity.fall(level, pos, state);
+        if (data != null) falling.blockData = data;
+        falling(falling);
     }
 
     public static void startHatching(DragonBreed breed, int hatchTime, Level level, BlockPos pos)
     {
-        if (!level.isClientSide)
+        startHatching(breed, hatchTime, null, level, pos);
+    }
+
+    /**
+     * @param name given to the dragon once it hatches
+     */
+    public static void startHatching(DragonBreed breed, int hatchTime, @Nullable Component name, Level level, BlockPos pos)
+    {
+        if (!level.isClientSide && DMLConfig.hatchEggsAsBlocks())
+        {
+            if (!level.getBlockState(pos).is(DMLRegistry.EGG_BLOCK.get()))
+                level.setBlock(pos, DMLRegistry.EGG_BLOCK.get().defaultBlockState(), Block.UPDATE_ALL);
+
+            if (level.getBlockEntity(pos) instanceof Entity e)
+            {
+                e.setBreed(breed);
+                e.setHatchTime(hatchTime);
+                e.setCustomName(name);
+                e.startHatching();
+            }
+        }
+        else if (!level.isClientSide)
         {
             DragonEgg egg = DMLRegistry.DRAGON_EGG.get().create(level);
             egg.setEggBreed(breed);
             egg.setHatchTime(hatchTime);
+            egg.setCustomName(name);
             egg.setPos(pos.getX() + 0.5d, pos.getY() + 0.1d, pos.getZ() + 0.5d);
             level.addFreshEntity(egg);
         }
@@ -192,10 +251,25 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
         }
     }
 
-    public static class Entity extends BlockEntity
+    /**
+     * Holds the breed and hatch time of egg blocks.
+     * With {@link DMLConfig#hatchEggsAsBlocks()}, also incubates the egg in place of a {@link DragonEgg} entity:
+     * hatching, habitat changes and wiggling all tick here, and the egg only becomes an entity (a falling block) when it falls.
+     */
+    public static class Entity extends BlockEntity implements HabitatSchedule.Incubator
     {
+        private static final String NBT_HATCHING = "Hatching";
+        private static final String NBT_TRANSITION_BREED = "TransitionBreed";
+        private static final String NBT_TRANSITION_TIME = "TransitionTime";
+        private static final String NBT_CUSTOM_NAME = "CustomName";
+
+        private final HabitatSchedule habitat = new HabitatSchedule(this);
         private DragonBreed breed;
         private int hatchTime;
+        private boolean hatching;
+        private DragonBreed transitionBreed;
+        private int transitionTime;
+        @Nullable private Component customName;
 
         public Entity(BlockPos pWorldPosition, BlockState pBlockState)
         {
@@ -210,6 +284,16 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
             super.saveAdditional(tag);
             tag.putString(TameableDragon.NBT_BREED, breed.id().toString());
             tag.putInt(DragonEgg.NBT_HATCH_TIME, hatchTime);
+            if (customName != null) tag.putString(NBT_CUSTOM_NAME, Component.Serializer.toJson(customName));
+            if (hatching)
+            {
+                tag.putBoolean(NBT_HATCHING, true);
+                if (transitionBreed != null)
+                {
+                    tag.putString(NBT_TRANSITION_BREED, transitionBreed.id().toString());
+                    tag.putInt(NBT_TRANSITION_TIME, transitionTime);
+                }
+            }
         }
 
         @Override
@@ -218,6 +302,10 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
             super.load(tag);
             setBreed(BreedManager.read(tag.getString(TameableDragon.NBT_BREED)));
             setHatchTime(tag.getInt(DragonEgg.NBT_HATCH_TIME));
+            hatching = tag.getBoolean(NBT_HATCHING);
+            transitionBreed = BreedManager.getNullable(ResourceLocation.tryParse(tag.getString(NBT_TRANSITION_BREED)));
+            transitionTime = transitionBreed == null? 0 : tag.getInt(NBT_TRANSITION_TIME);
+            customName = tag.contains(NBT_CUSTOM_NAME, Tag.TAG_STRING)? Component.Serializer.fromJson(tag.getString(NBT_CUSTOM_NAME)) : null;
         }
 
         @Nullable
@@ -233,6 +321,97 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
             return saveWithoutMetadata();
         }
 
+        public static void serverTick(Level level, BlockPos pos, BlockState state, Entity egg)
+        {
+            if (!egg.hatching) return;
+
+            if (egg.transitionTime > 0 && --egg.transitionTime == 0)
+            {
+                egg.breed = egg.transitionBreed;
+                egg.transitionBreed = null;
+                egg.sync();
+            }
+
+            egg.habitat.tick((ServerLevel) level, level.random);
+
+            if (--egg.hatchTime <= 0)
+            {
+                egg.hatch();
+                return;
+            }
+
+            if (egg.hatchTime < DragonEgg.EGG_WIGGLE_THRESHOLD && level.random.nextInt(Math.max(10, egg.hatchTime)) == 0)
+                level.playSound(null, pos, SoundEvents.TURTLE_EGG_CRACK, SoundSource.BLOCKS, 1, 1);
+
+            level.blockEntityChanged(pos); // just mark the chunk for saving; setChanged() would also update neighbours every tick
+        }
+
+        public static void clientTick(Level level, BlockPos pos, BlockState state, Entity egg)
+        {
+            if (!egg.hatching) return;
+
+            double x = pos.getX() + 0.5, y = pos.getY(), z = pos.getZ() + 0.5;
+            DragonEgg.addHatchingParticles(level, egg.breed, x, y, z, level.random);
+            if (egg.transitionTime > 0)
+            {
+                egg.transitionTime--;
+                DragonEgg.addTransitionParticles(level, egg.transitionBreed, egg.transitionTime, x, y, z, level.random);
+            }
+        }
+
+        public void startHatching()
+        {
+            hatching = true;
+            sync();
+        }
+
+        public boolean isHatching()
+        {
+            return hatching;
+        }
+
+        // same as DragonEgg#hatch
+        private void hatch()
+        {
+            level.removeBlock(worldPosition, false);
+            level.playSound(null, worldPosition, SoundEvents.TURTLE_EGG_HATCH, SoundSource.BLOCKS, 1, 1);
+
+            TameableDragon dragon = DMLRegistry.DRAGON.get().create(level);
+            dragon.setBreed(breed);
+            dragon.setBaby(true);
+            dragon.setPos(worldPosition.getX() + 0.5d, worldPosition.getY(), worldPosition.getZ() + 0.5d);
+            dragon.setCustomName(customName);
+            level.addFreshEntity(dragon);
+        }
+
+        private void sync()
+        {
+            setChanged();
+            if (level != null) level.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), Block.UPDATE_CLIENTS);
+        }
+
+        @Override
+        public BlockPos getHabitatPos()
+        {
+            return worldPosition;
+        }
+
+        @Override
+        public boolean canUpdateHabitat()
+        {
+            return hatching && DMLConfig.updateHabitats() && hatchTime > DragonEgg.BREED_TRANSITION_TIME && transitionTime <= 0;
+        }
+
+        @Override
+        public void applyHabitat(@Nullable DragonBreed winner)
+        {
+            if (winner == null || winner == breed) return;
+
+            transitionBreed = winner;
+            transitionTime = DragonEgg.BREED_TRANSITION_TIME;
+            sync();
+        }
+
         public void setBreed(DragonBreed breed)
         {
             this.breed = breed;
@@ -252,5 +431,16 @@ public class DMLEggBlock extends DragonEggBlock implements EntityBlock
         {
             return hatchTime;
         }
+
+        public void setCustomName(@Nullable Component name)
+        {
+            customName = name;
+        }
+
+        @Nullable
+        public Component getCustomName()
+        {
+            return customName;
+        }
     }
 }
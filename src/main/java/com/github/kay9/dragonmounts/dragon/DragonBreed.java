@@ -4,6 +4,7 @@ import com.github.kay9.dragonmounts.DragonMountsLegacy;
 import com.github.kay9.dragonmounts.abilities.Ability;
 import com.github.kay9.dragonmounts.habitats.FluidHabitat;
 import com.github.kay9.dragonmounts.habitats.Habitat;
+import com.github.kay9.dragonmounts.habitats.HabitatSnapshot;
 import com.github.kay9.dragonmounts.habitats.NearbyBlocksHabitat;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -11,7 +12,6 @@ import com.google.common.collect.ImmutableSet;
 import com.mojang.math.Vector3f;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
 import net.minecraft.core.particles.DustParticleOptions;
 import net.minecraft.core.particles.ParticleOptions;
@@ -23,11 +23,11 @@ import net.minecraft.tags.FluidTags;
 import net.minecraft.world.entity.ai.attributes.Attribute;
 import net.minecraft.world.entity.ai.attributes.AttributeInstance;
 import net.minecraft.world.entity.ai.attributes.AttributeMap;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.storage.loot.BuiltInLootTables;
 import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nullable;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -70,6 +70,19 @@ public record DragonBreed(ResourceLocation id, int primaryColor, int secondaryCo
             BuiltInLootTables.EMPTY,
             TameableDragon.DEFAULT_GROWTH_TIME);
 
+    public DragonBreed
+    {
+        abilities = AbilityList.of(abilities);
+    }
+
+    /**
+     * The breed's abilities split by the hooks they subscribe to.
+     */
+    public AbilityHooks hooks()
+    {
+        return ((AbilityList) abilities).hooks;
+    }
+
     public void initialize(TameableDragon dragon)
     {
         applyAttributes(dragon);
@@ -103,10 +116,10 @@ public record DragonBreed(ResourceLocation id, int primaryColor, int secondaryCo
         return "dragon_breed." + id().getNamespace() + "." + id().getPath();
     }
 
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
         int points = 0;
-        for (Habitat habitat : habitats()) points += habitat.getHabitatPoints(level, pos);
+        for (Habitat habitat : habitats()) points += habitat.getHabitatPoints(snapshot);
         return points;
     }
 
@@ -123,6 +136,86 @@ public record DragonBreed(ResourceLocation id, int primaryColor, int secondaryCo
         dragon.setHealth(dragon.getMaxHealth() * healthPercentile); // in case we have less than max health
     }
 
+    /**
+     * Abilities split by the hooks they subscribe to, so dispatching a hook only visits abilities that use it.
+     */
+    public static final class AbilityHooks
+    {
+        private final Ability[] tick, move, land, takeoff, riderInput;
+
+        private AbilityHooks(List<Ability> abilities)
+        {
+            tick = filter(abilities, Ability.TICK);
+            move = filter(abilities, Ability.MOVE);
+            land = filter(abilities, Ability.LAND);
+            takeoff = filter(abilities, Ability.TAKEOFF);
+            riderInput = filter(abilities, Ability.RIDER_INPUT);
+        }
+
+        public Ability[] tick()
+        {
+            return tick;
+        }
+
+        public Ability[] move()
+        {
+            return move;
+        }
+
+        public Ability[] land()
+        {
+            return land;
+        }
+
+        public Ability[] takeoff()
+        {
+            return takeoff;
+        }
+
+        public Ability[] riderInput()
+        {
+            return riderInput;
+        }
+
+        private static Ability[] filter(List<Ability> abilities, int hook)
+        {
+            return abilities.stream().filter(a -> (a.hooks() & hook) != 0).toArray(Ability[]::new);
+        }
+    }
+
+    /**
+     * Immutable list of abilities that carries their {@link AbilityHooks}, worked out once when the breed is created.
+     * Compares like any other list, so it doesn't show up in the breed's equality.
+     */
+    private static final class AbilityList extends AbstractList<Ability>
+    {
+        private final List<Ability> abilities;
+        private final AbilityHooks hooks;
+
+        private AbilityList(List<Ability> abilities)
+        {
+            this.abilities = abilities;
+            this.hooks = new AbilityHooks(abilities);
+        }
+
+        private static AbilityList of(List<Ability> abilities)
+        {
+            return abilities instanceof AbilityList list? list : new AbilityList(ImmutableList.copyOf(abilities));
+        }
+
+        @Override
+        public Ability get(int index)
+        {
+            return abilities.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return abilities.size();
+        }
+    }
+
     public static record ModelProperties(boolean middleTailScales, boolean tailHorns, boolean thinLegs)
     {
         public static final ModelProperties STANDARD = new ModelProperties(true, false, false);
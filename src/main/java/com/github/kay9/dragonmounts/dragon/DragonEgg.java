@@ -3,6 +3,9 @@ package com.github.kay9.dragonmounts.dragon;
 import com.github.kay9.dragonmounts.DMLConfig;
 import com.github.kay9.dragonmounts.DMLRegistry;
 import com.github.kay9.dragonmounts.data.BreedManager;
+import com.github.kay9.dragonmounts.habitats.HabitatSchedule;
+import com.github.kay9.dragonmounts.util.BlockChangeTracker;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.protocol.Packet;
@@ -10,6 +13,7 @@ import net.minecraft.network.syncher.EntityDataAccessor;
 import net.minecraft.network.syncher.EntityDataSerializers;
 import net.minecraft.network.syncher.SynchedEntityData;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.damagesource.DamageSource;
@@ -18,30 +22,39 @@ import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.MoverType;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.network.NetworkHooks;
 
+import javax.annotation.Nullable;
+import java.util.Random;
+
 /**
- * todo: Entity may not be needed. All this logic could possibly be implemented in a BlockEntity...?
+ * An incubating dragon egg with physics.
+ * If {@link DMLConfig#hatchEggsAsBlocks()} is enabled, eggs incubate as {@link DMLEggBlock.Entity} instead.
  */
-public class DragonEgg extends Entity
+public class DragonEgg extends Entity implements HabitatSchedule.Incubator
 {
     // constants
     public static final float WIDTH = 0.9f; // Roughly the same size as the dragon egg block box
     public static final float HEIGHT = 0.9f;
-    public static final int HABITAT_UPDATE_INTERVAL = 200; // every 10 seconds (give or take, this depends on lag)
+    public static final int HABITAT_UPDATE_INTERVAL = 200; // every 10 seconds (give or take, this depends on lag, jitter and the update budget)
     public static final int DEFAULT_HATCH_TIME = 12000;
     public static final int BREED_TRANSITION_TIME = 200;
     public static final float EGG_WIGGLE_THRESHOLD = DEFAULT_HATCH_TIME * 0.25f;
+    public static final int REST_TICKS = 20; // ticks an egg must lie still, with nothing to push, before going dormant
     public static final byte HATCH_ID = 1;
     public static final byte WIGGLE_ID = 2;
 
     public static final String NBT_HATCH_TIME = "HatchTime";
 
-    public static final EntityDataAccessor<String> BREED = SynchedEntityData.defineId(DragonEgg.class, EntityDataSerializers.STRING);
+    public static final EntityDataAccessor<Integer> BREED = SynchedEntityData.defineId(DragonEgg.class, EntityDataSerializers.INT); // BreedManager index
 
     public DragonBreed breed;
     public final TransitionHandler transitioner;
     private int hatchTime;
+    private final HabitatSchedule habitat;
+    private int restingTicks;
+    private long dormantSince = -1; // game time; -1 while awake
 //    private final LerpedFloat wiggleTime; todo: wiggle animations
 //    private boolean wiggling;
 
@@ -52,13 +65,14 @@ public class DragonEgg extends Entity
         breed = BreedManager.getFallback();
         hatchTime = DEFAULT_HATCH_TIME;
         transitioner = new TransitionHandler();
+        habitat = new HabitatSchedule(this);
 //        wiggleTime = LerpedFloat.unit();
     }
 
     @Override
     protected void defineSynchedData()
     {
-        entityData.define(BREED, "");
+        entityData.define(BREED, -1);
     }
 
     @Override
@@ -80,12 +94,12 @@ public class DragonEgg extends Entity
     @Override
     public void onSyncedDataUpdated(EntityDataAccessor<?> key)
     {
-        if (key.equals(BREED)) breed = BreedManager.read(entityData.get(BREED));
+        if (key.equals(BREED)) breed = BreedManager.byIndex(entityData.get(BREED));
         else if (key.equals(TransitionHandler.TRANSITION_BREED))
         {
             // the transitioner can have a null value
-            var breed = BreedManager.getNullable(ResourceLocation.tryParse(entityData.get(TransitionHandler.TRANSITION_BREED)));
-            if (breed != null) transitioner.begin(breed);
+            var index = entityData.get(TransitionHandler.TRANSITION_BREED);
+            if (index != -1) transitioner.begin(BreedManager.byIndex(index));
             else transitioner.abort();
         }
         super.onSyncedDataUpdated(key);
@@ -93,7 +107,36 @@ public class DragonEgg extends Entity
 
     public void setEggBreed(DragonBreed breed)
     {
-        entityData.set(BREED, breed.id().toString());
+        entityData.set(BREED, BreedManager.getIndex(breed));
+    }
+
+    /**
+     * Look the breeds up again after breeds are reloaded, since both the instances and their indices may have changed.
+     * Clients resolve the indices last sent by the server.
+     */
+    public void refreshBreed()
+    {
+        if (level.isClientSide)
+        {
+            breed = BreedManager.byIndex(entityData.get(BREED));
+            var transitioning = entityData.get(TransitionHandler.TRANSITION_BREED);
+            if (transitioner.isRunning() && transitioning != -1) transitioner.transitioningBreed = BreedManager.byIndex(transitioning);
+            return;
+        }
+
+        var breed = BreedManager.get(this.breed.id());
+        setEggBreed(breed);
+        this.breed = breed; // in case the index didn't change
+        if (transitioner.isRunning())
+        {
+            var transitioning = BreedManager.getNullable(transitioner.transitioningBreed.id());
+            if (transitioning != null) transitioner.begin(transitioning, transitioner.transitionTime);
+            else
+            {
+                transitioner.abort();
+                entityData.set(TransitionHandler.TRANSITION_BREED, -1);
+            }
+        }
     }
 
     public void setHatchTime(int time)
@@ -128,19 +171,27 @@ public class DragonEgg extends Entity
     @Override
     public void tick()
     {
-        // update motion - should fall
-        if (!isNoGravity()) setDeltaMovement(getDeltaMovement().add(0, -0.04d, 0));
+        if (!isDormant())
+        {
+            // update motion - should fall
+            if (!isNoGravity()) setDeltaMovement(getDeltaMovement().add(0, -0.04d, 0));
+
+            move(MoverType.SELF, getDeltaMovement());
+            setDeltaMovement(getDeltaMovement().multiply(0.3d, 0.98d, 0.3d));
+            var pushing = level.getEntities(this, getBoundingBox(), e -> !(e instanceof Player));
+            pushing.forEach(this::push);
+            if (!level.isClientSide) updateRest(pushing.isEmpty());
+        }
+        else if (BlockChangeTracker.hasChanged(level, dormantSince, blockPosition(), 1) // the ground may be gone
+                || !level.getEntities(this, getBoundingBox(), e -> !(e instanceof Player)).isEmpty()) // still far cheaper than move()
+            wake();
 
-        move(MoverType.SELF, getDeltaMovement());
-        setDeltaMovement(getDeltaMovement().multiply(0.3d, 0.98d, 0.3d));
-        level.getEntities(this, getBoundingBox(), e -> !(e instanceof Player)).forEach(this::push);
         transitioner.tick();
 
         if (!level.isClientSide)
         {
             // Update habitat
-            if (DMLConfig.updateHabitats() && hatchTime > BREED_TRANSITION_TIME && !transitioner.isRunning() && tickCount % HABITAT_UPDATE_INTERVAL == 0)
-                updateHabitat();
+            habitat.tick((ServerLevel) level, random);
 
             // hatch!
             if (--hatchTime <= 0)
@@ -164,15 +215,23 @@ public class DragonEgg extends Entity
 
     public void addHatchingParticles()
     {
-        double px = getX() + (random.nextDouble() - 0.5);
-        double py = getY() + random.nextDouble();
-        double pz = getZ() + (random.nextDouble() - 0.5);
+        addHatchingParticles(level, breed, getX(), getY(), getZ(), random);
+    }
+
+    /**
+     * Shared with eggs incubating as blocks; x, y and z are the bottom center of the egg.
+     */
+    public static void addHatchingParticles(Level level, DragonBreed breed, double x, double y, double z, Random random)
+    {
+        double px = x + (random.nextDouble() - 0.5);
+        double py = y + random.nextDouble();
+        double pz = z + (random.nextDouble() - 0.5);
         double ox = 0;
         double oy = 0;
         double oz = 0;
 
         var particle = breed.getHatchParticles(random);
-        if (particle.getType() == ParticleTypes.DUST) py = getY() + (random.nextDouble() - 0.5) + 1;
+        if (particle.getType() == ParticleTypes.DUST) py = y + (random.nextDouble() - 0.5) + 1;
         if (particle.getType() == ParticleTypes.PORTAL)
         {
             ox = (random.nextDouble() - 0.5) * 2;
@@ -183,9 +242,53 @@ public class DragonEgg extends Entity
         level.addParticle(particle, px, py, pz, ox, oy, oz);
     }
 
+    /**
+     * Dormant eggs lie still on the ground and skip physics and collision checks until something disturbs them:
+     * a block change nearby, being hurt or pushed, or an entity moving into them.
+     * Everything else (hatching, habitats, transitions) keeps ticking as normal. Server side only.
+     */
+    public boolean isDormant()
+    {
+        return dormantSince != -1;
+    }
+
+    private void updateRest(boolean nothingToPush)
+    {
+        if (onGround && nothingToPush && getDeltaMovement().lengthSqr() < 1.0E-6)
+        {
+            if (++restingTicks >= REST_TICKS)
+            {
+                setDeltaMovement(Vec3.ZERO);
+                dormantSince = level.getGameTime();
+            }
+        }
+        else restingTicks = 0;
+    }
+
+    public void wake()
+    {
+        restingTicks = 0;
+        dormantSince = -1;
+    }
+
+    @Override
+    public void push(Entity entity)
+    {
+        wake();
+        super.push(entity);
+    }
+
+    @Override
+    public void push(double x, double y, double z)
+    {
+        wake();
+        super.push(x, y, z);
+    }
+
     @Override
     public boolean hurt(DamageSource source, float amount)
     {
+        wake();
         if (source.getEntity() instanceof Player)
         {
             spawnAtLocation(DMLEggBlock.Item.create(breed, hatchTime));
@@ -196,22 +299,29 @@ public class DragonEgg extends Entity
         return super.hurt(source, amount);
     }
 
-    public void updateHabitat()
+    @Override
+    public BlockPos getHabitatPos()
+    {
+        return blockPosition();
+    }
+
+    @Override
+    public boolean canUpdateHabitat()
+    {
+        return DMLConfig.updateHabitats() && hatchTime > BREED_TRANSITION_TIME && !transitioner.isRunning();
+    }
+
+    @Override
+    public void applyHabitat(@Nullable DragonBreed winner)
     {
-        DragonBreed winner = null;
-        int prevPoints = 0;
-        for (var breed : BreedManager.getBreeds())
-        {
-            int points = breed.getHabitatPoints(level, blockPosition());
-            if (points > 2 && points > prevPoints)
-            {
-                winner = breed;
-                prevPoints = points;
-            }
-        }
         if (winner != null && winner != breed) transitioner.begin(winner);
     }
 
+    public void updateHabitat()
+    {
+        habitat.update();
+    }
+
     @Override
     public void handleEntityEvent(byte id)
     {
@@ -244,6 +354,22 @@ public class DragonEgg extends Entity
         discard();
     }
 
+    /**
+     * Shared with eggs incubating as blocks; x, y and z are the bottom center of the egg.
+     */
+    public static void addTransitionParticles(Level level, DragonBreed transitioningBreed, int transitionTime, double x, double y, double z, Random random)
+    {
+        for (var i = 0; i < BREED_TRANSITION_TIME - transitionTime; i++)
+        {
+            var px = x + (random.nextDouble() - 0.5);
+            var py = y + random.nextDouble();
+            var pz = z + (random.nextDouble() - 0.5);
+            var particle = transitioningBreed.getDustParticles(random);
+
+            level.addParticle(particle, px, py, pz, 0, 0, 0);
+        }
+    }
+
     public void wiggle()
     {
         if (level.isClientSide)
@@ -257,7 +383,7 @@ public class DragonEgg extends Entity
 
     public class TransitionHandler
     {
-        private static final EntityDataAccessor<String> TRANSITION_BREED = SynchedEntityData.defineId(DragonEgg.class, EntityDataSerializers.STRING);
+        private static final EntityDataAccessor<Integer> TRANSITION_BREED = SynchedEntityData.defineId(DragonEgg.class, EntityDataSerializers.INT); // BreedManager index, -1 if none
         private static final String NBT_TRANSITION_BREED = "TransitionBreed";
         private static final String NBT_TRANSITION_TIME = "TransitionTime";
 
@@ -266,7 +392,7 @@ public class DragonEgg extends Entity
 
         public TransitionHandler()
         {
-            entityData.define(TRANSITION_BREED, "");
+            entityData.define(TRANSITION_BREED, -1);
         }
 
         public void tick()
@@ -276,21 +402,11 @@ public class DragonEgg extends Entity
                 if (--transitionTime == 0 && !level.isClientSide)
                 {
                     setEggBreed(transitioningBreed);
-                    entityData.set(TRANSITION_BREED, "");
+                    entityData.set(TRANSITION_BREED, -1);
                 }
 
                 if (level.isClientSide)
-                {
-                    for (var i = 0; i < BREED_TRANSITION_TIME - transitionTime; i++)
-                    {
-                        var px = getX() + (random.nextDouble() - 0.5);
-                        var py = getY() + random.nextDouble();
-                        var pz = getZ() + (random.nextDouble() - 0.5);
-                        var particle = transitioningBreed.getDustParticles(random);
-
-                        level.addParticle(particle, px, py, pz, 0, 0, 0);
-                    }
-                }
+                    addTransitionParticles(level, transitioningBreed, transitionTime, getX(), getY(), getZ(), random);
             }
         }
 
@@ -298,7 +414,7 @@ public class DragonEgg extends Entity
         {
             this.transitioningBreed = transitioningBreed;
             this.transitionTime = transitionTime;
-            entityData.set(TRANSITION_BREED, transitioningBreed.id().toString());
+            entityData.set(TRANSITION_BREED, BreedManager.getIndex(transitioningBreed));
         }
 
         public void begin(DragonBreed transitioningBreed)
@@ -0,0 +1,196 @@
+package com.github.kay9.dragonmounts.dragon;
+
+import com.github.kay9.dragonmounts.DMLConfig;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.phys.Vec3;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Server side level of detail for dragon ticking.
+ * <p>
+ * Dragons nobody is around to see, or that are just sitting about, run their AI, abilities and flight checks
+ * only every few ticks. Everything else (movement physics, age, love and breeding timers) still ticks every tick,
+ * so no catching up is needed when a dragon returns to full detail.
+ * <p>
+ * Tiers are re-evaluated once a second, and immediately when the dragon is hurt or interacted with.
+ * <p>
+ * Tamed dragons ordered to sit on solid ground go dormant: no goals, targeting, movement or abilities at all,
+ * until they are hurt, interacted with, told to get up, or lose the ground beneath them.
+ * <p>
+ * How many dragons are in each tier, and how many are dormant, is counted per level; see {@link #census}.
+ */
+public class DragonLod
+{
+    public static final int EVALUATE_INTERVAL = 20;
+
+    private static final Map<LevelAccessor, Census> CENSUSES = new WeakHashMap<>();
+
+    private final TameableDragon dragon;
+    @Nullable private Tier tier; // null while not counted
+    @Nullable private Census census; // where we're counted
+    private boolean dormant;
+
+    public DragonLod(TameableDragon dragon)
+    {
+        this.dragon = dragon;
+    }
+
+    /**
+     * Call once per server tick.
+     *
+     * @return true if the dragon should run its AI (etc.) this tick
+     */
+    public boolean tick()
+    {
+        var time = dragon.tickCount + dragon.getId(); // stagger dragons loaded together
+        if (tier == null || time % EVALUATE_INTERVAL == 0)
+        {
+            setTier(evaluate());
+            setDormant(canRest());
+        }
+        return !dormant && time % tier.interval() == 0;
+    }
+
+    /**
+     * Return to full detail right away, e.g. when attacked.
+     */
+    public void wake()
+    {
+        setDormant(false);
+        if (tier != null) setTier(Tier.FULL);
+    }
+
+    /**
+     * Stop counting this dragon, when it leaves the level.
+     */
+    public void clear()
+    {
+        setDormant(false); // while we still know where we're counted
+        setTier(null);
+    }
+
+    @Nullable
+    public Tier getTier()
+    {
+        return tier;
+    }
+
+    public boolean isDormant()
+    {
+        return dormant;
+    }
+
+    private Tier evaluate()
+    {
+        if (dragon.isVehicle() || dragon.isLeashed() || dragon.isFlying() || dragon.isInLove() || dragon.getTarget() != null || dragon.hurtTime > 0)
+            return Tier.FULL;
+
+        var near = DMLConfig.lodNearDistance();
+        var far = DMLConfig.lodFarDistance();
+        var player = dragon.level.getNearestPlayer(dragon, Math.max(near, far));
+        if (player == null) return Tier.MINIMAL;
+        if (player.distanceToSqr(dragon) > near * near || dragon.isOrderedToSit()) return Tier.REDUCED;
+        return Tier.FULL;
+    }
+
+    private boolean canRest()
+    {
+        return dragon.isTame()
+                && dragon.isOrderedToSit()
+                && dragon.isInSittingPose() // let the sit goal run first
+                && !dragon.isPassenger()
+                && !dragon.isVehicle()
+                && !dragon.isLeashed()
+                && !dragon.isFlying()
+                && !dragon.isInLove()
+                && !dragon.isInWater()
+                && !dragon.isInLava()
+                && dragon.hurtTime == 0
+                && dragon.getTarget() == null
+                && !dragon.level.noCollision(dragon, dragon.getBoundingBox().move(0, -0.1, 0)); // still standing on something
+    }
+
+    private void setDormant(boolean dormant)
+    {
+        if (this.dormant == dormant || (dormant && tier == null)) return;
+
+        this.dormant = dormant;
+        if (dormant)
+        {
+            census.dormant++;
+            dragon.getNavigation().stop();
+            dragon.setDeltaMovement(Vec3.ZERO);
+        }
+        else census.dormant--;
+    }
+
+    private void setTier(@Nullable Tier tier)
+    {
+        if (this.tier == tier) return;
+
+        if (this.tier == null) census = census((ServerLevel) dragon.level); // only ever ticked on the server
+        else census.population[this.tier.ordinal()]--;
+
+        if (tier != null) census.population[tier.ordinal()]++;
+        else census = null;
+        this.tier = tier;
+    }
+
+    /**
+     * The dragons counted in the given level.
+     */
+    public static Census census(ServerLevel level)
+    {
+        return CENSUSES.computeIfAbsent(level, l -> new Census());
+    }
+
+    public static void unload(LevelAccessor level)
+    {
+        CENSUSES.remove(level);
+    }
+
+    public static class Census
+    {
+        private final int[] population = new int[Tier.values().length];
+        private int dormant;
+
+        /**
+         * Number of loaded dragons currently in the given tier.
+         */
+        public int population(Tier tier)
+        {
+            return population[tier.ordinal()];
+        }
+
+        /**
+         * Fraction of loaded dragons that are currently dormant.
+         */
+        public float dormantFraction()
+        {
+            var total = 0;
+            for (var count : population) total += count;
+            return total == 0? 0 : (float) dormant / total;
+        }
+    }
+
+    public enum Tier
+    {
+        FULL, // a player is close by, or the dragon is doing something
+        REDUCED, // players are some way off, or the dragon is sitting
+        MINIMAL; // no players around
+
+        public int interval()
+        {
+            return switch (this)
+            {
+                case FULL -> 1;
+                case REDUCED -> DMLConfig.lodReducedInterval();
+                case MINIMAL -> DMLConfig.lodMinimalInterval();
+            };
+        }
+    }
+}
@@ -8,8 +8,13 @@ import com.github.kay9.dragonmounts.data.BreedManager;
 import com.github.kay9.dragonmounts.dragon.ai.DragonBodyController;
 import com.github.kay9.dragonmounts.dragon.ai.DragonBreedGoal;
 import com.github.kay9.dragonmounts.dragon.ai.DragonMoveController;
+import com.github.kay9.dragonmounts.dragon.ai.MateRegistry;
+import com.github.kay9.dragonmounts.network.DragonStatePacket;
+import com.github.kay9.dragonmounts.network.DragonStateSync;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.TextComponent;
 import net.minecraft.network.chat.TranslatableComponent;
@@ -38,7 +43,7 @@ import net.minecraft.world.entity.ai.goal.target.NonTameRandomTargetGoal;
 import net.minecraft.world.entity.ai.goal.target.OwnerHurtByTargetGoal;
 import net.minecraft.world.entity.ai.goal.target.OwnerHurtTargetGoal;
 import net.minecraft.world.entity.ai.navigation.FlyingPathNavigation;
-import net.minecraft.world.entity.ai.navigation.GroundPathNavigation;
+import net.minecraft.world.entity.ai.navigation.PathNavigation;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.entity.animal.FlyingAnimal;
 import net.minecraft.world.entity.player.Player;
@@ -51,6 +56,8 @@ import net.minecraft.world.level.block.SoundType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.entity.IEntityAdditionalSpawnData;
+import net.minecraftforge.network.NetworkHooks;
 import org.codehaus.plexus.util.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -70,7 +77,7 @@ import static net.minecraft.world.entity.ai.attributes.Attributes.*;
  * @author Kay9
  */
 @SuppressWarnings("ConstantConditions")
-public class TameableDragon extends TamableAnimal implements Saddleable, FlyingAnimal, PlayerRideable
+public class TameableDragon extends TamableAnimal implements Saddleable, FlyingAnimal, PlayerRideable, IEntityAdditionalSpawnData
 {
     // base attributes
     public static final double BASE_SPEED_GROUND = 0.3;
@@ -84,10 +91,8 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     public static final float BASE_HEIGHT = 2.75f;
 
     // data value IDs
-    private static final EntityDataAccessor<String> DATA_BREED = SynchedEntityData.defineId(TameableDragon.class, EntityDataSerializers.STRING);
+    // breed, saddle and age are sent with the spawn packet, and changes to them through DragonStateSync
     private static final EntityDataAccessor<Boolean> DATA_FLYING = SynchedEntityData.defineId(TameableDragon.class, EntityDataSerializers.BOOLEAN);
-    private static final EntityDataAccessor<Boolean> DATA_SADDLED = SynchedEntityData.defineId(TameableDragon.class, EntityDataSerializers.BOOLEAN);
-    private static final EntityDataAccessor<Integer> DATA_AGE = SynchedEntityData.defineId(TameableDragon.class, EntityDataSerializers.INT);
 
     // data NBT IDs
     public static final String NBT_BREED = "Breed";
@@ -95,17 +100,30 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     private static final String NBT_REPRO_COUNT = "ReproCount";
 
     // other constants
-    public static final int AGE_UPDATE_INTERVAL = 100;
     public static final UUID SCALE_MODIFIER_UUID = UUID.fromString("856d4ba4-9ffe-4a52-8606-890bb9be538b"); // just a random uuid I took online
     public static final int ALTITUDE_FLYING_THRESHOLD = 3;
+    public static final int ALTITUDE_LANDING_THRESHOLD = 1; // lower than the flying threshold, so hovering around it doesn't flip states
     public static final int DEFAULT_REPRO_LIMIT = 2;
     public static final int DEFAULT_GROWTH_TIME = 72000;
 
     // server/client delegates
     private final DragonAnimator animator;
+    private final AltitudeTracker altitude;
+    private final PathNavigation groundNavigation; // both kept, so toggling flight doesn't throw away pathfinders
+    private PathNavigation flyingNavigation;
+    private int navigationSwitches;
+    private final DragonLod lod;
+    private boolean fullTick = true; // false on ticks skipped by the LOD
+    private long mateSection = MateRegistry.NONE;
     private DragonBreed breed;
+    private int breedIndex = -1; // BreedManager index
+    private boolean saddled;
     private int reproCount;
     private float ageProgress;
+    private int ageStep = -1; // of DMLConfig#growthSteps; what size dependent properties were last updated for
+    private int syncedAge; // client side; the age last sent by the server...
+    private long syncedAgeTime; // ...and the game time it was true at
+    private int syncedAgeStep; // client side; the growth step the server last confirmed
 
     public TameableDragon(EntityType<? extends TameableDragon> type, Level level)
     {
@@ -117,6 +135,9 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
 
         moveControl = new DragonMoveController(this);
         animator = level.isClientSide? new DragonAnimator(this) : null;
+        altitude = new AltitudeTracker(this);
+        groundNavigation = navigation;
+        lod = new DragonLod(this);
         breed = BreedManager.getFallback(); //todo: figure something out for this? Not ideal to use fallback at any point during init...
     }
 
@@ -162,21 +183,82 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     {
         super.defineSynchedData();
 
-        entityData.define(DATA_BREED,"");
         entityData.define(DATA_FLYING, false);
-        entityData.define(DATA_SADDLED, false);
-        entityData.define(DATA_AGE, 0); // default to adult stage
     }
 
     @Override
     public void onSyncedDataUpdated(EntityDataAccessor<?> data)
     {
-        if (DATA_BREED.equals(data)) updateBreed(BreedManager.read(entityData.get(DATA_BREED)));
-        else if (DATA_FLAGS_ID.equals(data)) refreshDimensions();
-        else if (DATA_AGE.equals(data)) updateAgeProperties();
+        if (DATA_FLAGS_ID.equals(data)) refreshDimensions();
         else super.onSyncedDataUpdated(data);
     }
 
+    @Override
+    public Packet<?> getAddEntityPacket()
+    {
+        return NetworkHooks.getEntitySpawningPacket(this);
+    }
+
+    @Override
+    public void writeSpawnData(FriendlyByteBuf buffer)
+    {
+        DragonStatePacket.Entry.of(this).write(buffer);
+    }
+
+    /**
+     * The initial state arrives with the entity itself, so it never shows up with the wrong breed, saddle or size.
+     */
+    @Override
+    public void readSpawnData(FriendlyByteBuf buffer)
+    {
+        var state = DragonStatePacket.Entry.read(buffer);
+        applySyncedState(state.breed(), state.saddled(), state.age(), state.ageTime());
+    }
+
+    /**
+     * Called on the client with state sent in the spawn packet or by {@link DragonStateSync}.
+     */
+    public void applySyncedState(int breedIndex, boolean saddled, int age, long ageTime)
+    {
+        if (breedIndex != this.breedIndex)
+        {
+            this.breedIndex = breedIndex;
+            updateBreed(BreedManager.byIndex(breedIndex));
+        }
+        this.saddled = saddled;
+        syncedAge = age;
+        syncedAgeTime = ageTime;
+        syncedAgeStep = getAgeStep(age);
+        setAge(extrapolateAge());
+        updateAgeProperties();
+    }
+
+    /**
+     * The server only sends the age when it jumps or crosses a growth step; in between, it changes by one each tick towards 0,
+     * so clients work it out from the game time.
+     * <p>
+     * The server doesn't tick dragons outside simulation distance, even while players still track them, so the age is only
+     * extrapolated within the step last confirmed. Moving on to the next waits for the server to say it got there.
+     */
+    private int extrapolateAge()
+    {
+        var age = deriveAge();
+        if (getAgeStep(age) == syncedAgeStep) return age;
+        return getAgeStep(getAge()) == syncedAgeStep? getAge() : syncedAge; // hold where we are until the server gets there
+    }
+
+    private int deriveAge()
+    {
+        var elapsed = Math.max(0, level.getGameTime() - syncedAgeTime);
+        if (syncedAge < 0) return (int) Math.min(0, syncedAge + elapsed);
+        return (int) Math.max(0, syncedAge - elapsed);
+    }
+
+    private void syncState()
+    {
+        if (isServer()) DragonStateSync.markDirty(this);
+    }
+
     @Override
     public void addAdditionalSaveData(CompoundTag compound)
     {
@@ -194,12 +276,40 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
         setSaddled(compound.getBoolean(NBT_SADDLED));
         this.reproCount = compound.getInt(NBT_REPRO_COUNT);
 
-        entityData.set(DATA_AGE, getAge());
+        updateAgeProperties();
+        syncState();
     }
 
     public void setBreed(DragonBreed dragonBreed)
     {
-        entityData.set(DATA_BREED, dragonBreed.id().toString());
+        var index = BreedManager.getIndex(dragonBreed);
+        if (index == breedIndex) return;
+
+        breedIndex = index;
+        updateBreed(BreedManager.byIndex(index));
+        syncState();
+    }
+
+    public int getBreedIndex()
+    {
+        return breedIndex;
+    }
+
+    /**
+     * Look the breed up again after breeds are reloaded, since both the instance and its index may have changed.
+     * Clients resolve the index last sent by the server.
+     */
+    public void refreshBreed()
+    {
+        if (level.isClientSide)
+        {
+            updateBreed(BreedManager.byIndex(breedIndex));
+            return;
+        }
+
+        var breed = BreedManager.get(getBreed().id());
+        setBreed(breed);
+        if (getBreed() != breed) updateBreed(breed); // index didn't change, so setBreed didn't update
     }
 
     private void updateBreed(DragonBreed breed)
@@ -219,7 +329,7 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
      */
     public boolean isSaddled()
     {
-        return entityData.get(DATA_SADDLED);
+        return saddled;
     }
 
     @Override
@@ -240,7 +350,10 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
      */
     public void setSaddled(boolean saddled)
     {
-        entityData.set(DATA_SADDLED, saddled);
+        if (this.saddled == saddled) return;
+
+        this.saddled = saddled;
+        syncState();
     }
 
     public void addReproCount()
@@ -256,7 +369,7 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
 
     public boolean shouldFly()
     {
-        return canFly() && !isInWater() && isHighEnough(ALTITUDE_FLYING_THRESHOLD);
+        return canFly() && !isInWater() && isHighEnough(isFlying()? ALTITUDE_LANDING_THRESHOLD : ALTITUDE_FLYING_THRESHOLD);
     }
 
     /**
@@ -267,6 +380,14 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
         return entityData.get(DATA_FLYING);
     }
 
+    /**
+     * Number of times this dragon swapped between ground and flying navigation since it was loaded.
+     */
+    public int getNavigationSwitches()
+    {
+        return navigationSwitches;
+    }
+
     /**
      * Set the flying flag of the entity.
      */
@@ -278,14 +399,16 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     @Override
     public void tick()
     {
+        if (isServer()) fullTick = lod.tick();
+
         super.tick();
 
         if (isServer())
         {
-            if (age < 0 && tickCount % AGE_UPDATE_INTERVAL == 0) entityData.set(DATA_AGE, age);
+            mateSection = MateRegistry.update(this, mateSection);
 
             // update flying state based on the distance to the ground
-            boolean flying = shouldFly();
+            boolean flying = fullTick? shouldFly() : isFlying();
             if (flying != isFlying())
             {
                 // notify client
@@ -296,8 +419,17 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
                 getAttribute(FOLLOW_RANGE).setBaseValue(flying? BASE_FOLLOW_RANGE_FLYING : BASE_FOLLOW_RANGE);
 
                 // update pathfinding method
-                if (flying) navigation = new FlyingPathNavigation(this, level);
-                else navigation = new GroundPathNavigation(this, level);
+                navigation.stop();
+                if (flying)
+                {
+                    if (flyingNavigation == null) flyingNavigation = new FlyingPathNavigation(this, level);
+                    navigation = flyingNavigation;
+                }
+                else navigation = groundNavigation;
+                navigationSwitches++;
+
+                if (flying) for (var ability : getBreed().hooks().takeoff()) ability.onTakeoff(this);
+                else for (var ability : getBreed().hooks().land()) ability.onLand(this);
             }
         }
         else
@@ -306,18 +438,46 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
             animator.tick();
 
             // because age isn't incremented on client, do it ourselves...
-            int age = getAge();
-            if (age < 0) setAge(++age);
-            else if (age > 0) setAge(--age);
+            setAge(extrapolateAge());
         }
 
         updateAgeProgress();
-        for (var ability : getBreed().abilities()) ability.tick(this);
+        if (getAgeStep() != ageStep)
+        {
+            updateAgeProperties();
+            syncState(); // clients don't extrapolate past a step on their own
+        }
+        if (fullTick) for (var ability : getBreed().hooks().tick()) ability.tick(this);
+    }
+
+    @Override
+    protected void serverAiStep()
+    {
+        if (fullTick) super.serverAiStep();
+    }
+
+    public DragonLod getLod()
+    {
+        return lod;
+    }
+
+    @Override
+    public void onRemovedFromWorld()
+    {
+        super.onRemovedFromWorld();
+        lod.clear();
+        mateSection = MateRegistry.remove(this, mateSection);
     }
 
     @Override
     public void travel(Vec3 vec3)
     {
+        if (lod.isDormant()) // don't even fall; dormancy ends when the ground below goes away
+        {
+            setDeltaMovement(Vec3.ZERO); // don't let pushes pile up
+            return;
+        }
+
         boolean isFlying = isFlying();
         float speed = (float) getAttributeValue(isFlying? FLYING_SPEED : MOVEMENT_SPEED) * 0.225f;
 
@@ -338,6 +498,13 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
             // rotate body towards the head
             setYRot(Mth.rotateIfNecessary(yHeadRot, getYRot(), 4));
 
+            var inputAbilities = getBreed().hooks().riderInput();
+            if (isServer() && inputAbilities.length > 0)
+            {
+                var input = new Vec3(driver.xxa, driver.jumping? 1 : 0, driver.zza);
+                for (var ability : inputAbilities) ability.onRiderInput(this, driver, input);
+            }
+
             if (isControlledByLocalInstance()) // Client applies motion
             {
                 if (isFlying)
@@ -373,10 +540,18 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
         else super.travel(vec3);
     }
 
+    @Override
+    public void setOrderedToSit(boolean orderedToSit)
+    {
+        super.setOrderedToSit(orderedToSit);
+        if (!orderedToSit) lod.wake();
+    }
+
     @Override
     public InteractionResult mobInteract(Player player, InteractionHand hand)
     {
         ItemStack stack = player.getItemInHand(hand);
+        lod.wake();
 
         InteractionResult stackResult = stack.interactLivingEntity(player, this, hand);
         if (stackResult.consumesAction()) return stackResult;
@@ -443,14 +618,7 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
      */
     public double getAltitude(int limit)
     {
-        var pointer = blockPosition().mutable().move(0, -1, 0);
-        var min = level.dimensionType().minY();
-        var i = 0;
-
-        while(i <= limit && pointer.getY() > min && !level.getBlockState(pointer).getMaterial().isSolid())
-            pointer.setY(getBlockY() - ++i);
-
-        return i;
+        return altitude.getAltitude(limit);
     }
 
     /**
@@ -669,6 +837,14 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
         return 0.33f + (0.67f * getAgeProgress());
     }
 
+    /**
+     * {@link TameableDragon#getScale()}, rounded down to the current growth step. Used for dimensions and attributes.
+     */
+    public float getSteppedScale()
+    {
+        return 0.33f + (0.67f * getAgeStep() / DMLConfig.growthSteps());
+    }
+
     /**
      * Determines if an entity can be despawned, used on idle far away entities
      */
@@ -743,6 +919,7 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
 
         // don't just sit there!
         setOrderedToSit(false);
+        lod.wake();
 
         return super.hurt(src, par2);
     }
@@ -954,7 +1131,7 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     public EntityDimensions getDimensions(Pose poseIn)
     {
         var height = isInSittingPose()? 2.15f : BASE_HEIGHT;
-        var scale = getScale();
+        var scale = getSteppedScale();
         return new EntityDimensions(BASE_WIDTH * scale, height * scale, false);
     }
 
@@ -977,13 +1154,27 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
         return ageProgress;
     }
 
+    private int getAgeStep()
+    {
+        return (int) (getAgeProgress() * DMLConfig.growthSteps());
+    }
+
+    private int getAgeStep(int age)
+    {
+        float growth = -breed.growthTime();
+        return (int) ((1 - Math.min(age, 0) / growth) * DMLConfig.growthSteps());
+    }
+
+    /**
+     * Updates the size dependent properties (dimensions, attributes). Expensive; only needed when the age jumps or crosses a step.
+     */
     private void updateAgeProperties()
     {
-        setAge(entityData.get(DATA_AGE));
         updateAgeProgress();
+        ageStep = getAgeStep();
         refreshDimensions();
 
-        var mod = new AttributeModifier(SCALE_MODIFIER_UUID, "Dragon size modifier", getScale(), AttributeModifier.Operation.ADDITION);
+        var mod = new AttributeModifier(SCALE_MODIFIER_UUID, "Dragon size modifier", getSteppedScale(), AttributeModifier.Operation.ADDITION);
         for (var attribute : new Attribute[]{MAX_HEALTH, ATTACK_DAMAGE}) // avoid duped code
         {
             AttributeInstance instance = getAttribute(attribute);
@@ -1017,14 +1208,20 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     public void setBaby(boolean baby)
     {
         setAge(baby? -breed.growthTime() : 0);
-        entityData.set(DATA_AGE, age);
     }
 
     @Override
-    public void ageUp(int p_146741_, boolean p_146742_)
+    public void setAge(int age)
     {
-        super.ageUp(p_146741_, p_146742_);
-        entityData.set(DATA_AGE, getAge());
+        var previous = this.age;
+        super.setAge(age);
+
+        // growing by a tick is worked out by clients; anything else (breeding, feeding, loading...) needs to be sent
+        if (isServer() && Math.abs(age - previous) > 1)
+        {
+            updateAgeProperties();
+            syncState();
+        }
     }
 
     // simple helper method to determine if we're on the server thread.
@@ -1054,6 +1251,6 @@ public class TameableDragon extends TamableAnimal implements Saddleable, FlyingA
     protected void onChangedBlock(BlockPos pos)
     {
         super.onChangedBlock(pos);
-        for (var ability : getBreed().abilities()) ability.onMove(this);
+        for (var ability : getBreed().hooks().move()) ability.onMove(this);
     }
 }
\ No newline at end of file
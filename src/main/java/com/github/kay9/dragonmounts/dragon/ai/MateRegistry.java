@@ -0,0 +1,122 @@
+package com.github.kay9.dragonmounts.dragon.ai;
+
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.LevelAccessor;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The dragons of a level currently in love, bucketed by chunk section.
+ * <p>
+ * Mate searches only look at these, instead of every entity around: in a crowded pen,
+ * most dragons aren't in love at any given moment.
+ * Dragons keep their own registration up to date through {@link MateRegistry#update}.
+ */
+public class MateRegistry
+{
+    public static final long NONE = Long.MAX_VALUE;
+
+    // dragons are bucketed by their feet, but their bounds can reach into the search box from a neighbouring section
+    private static final double REACH_XZ = TameableDragon.BASE_WIDTH / 2;
+    private static final double REACH_Y = TameableDragon.BASE_HEIGHT;
+
+    private static final Map<LevelAccessor, MateRegistry> REGISTRIES = new WeakHashMap<>();
+
+    private final Long2ObjectMap<List<TameableDragon>> sections = new Long2ObjectOpenHashMap<>();
+
+    public static void unload(LevelAccessor level)
+    {
+        REGISTRIES.remove(level);
+    }
+
+    /**
+     * Move the dragon into the bucket for where it is now, or out of the registry once it is no longer in love.
+     * Call every server tick.
+     *
+     * @param registered the section the dragon was last registered under, or {@link MateRegistry#NONE}
+     * @return the section the dragon is now registered under
+     */
+    public static long update(TameableDragon dragon, long registered)
+    {
+        var section = dragon.isInLove()? SectionPos.asLong(dragon.blockPosition()) : NONE;
+        if (section == registered) return section;
+
+        var registry = REGISTRIES.computeIfAbsent(dragon.level, l -> new MateRegistry());
+        registry.remove(dragon, registered);
+        if (section != NONE) registry.sections.computeIfAbsent(section, s -> new ArrayList<>(2)).add(dragon);
+        return section;
+    }
+
+    /**
+     * Drop the dragon from the registry, e.g. when it leaves the level.
+     *
+     * @return {@link MateRegistry#NONE}
+     */
+    public static long remove(TameableDragon dragon, long registered)
+    {
+        if (registered != NONE)
+        {
+            var registry = REGISTRIES.get(dragon.level);
+            if (registry != null) registry.remove(dragon, registered);
+        }
+        return NONE;
+    }
+
+    /**
+     * The closest dragon in love the given one can mate with, whose bounds are within {@code range} of its own.
+     */
+    @Nullable
+    public static TameableDragon findMate(TameableDragon dragon, double range)
+    {
+        var registry = REGISTRIES.get(dragon.level);
+        if (registry == null) return null;
+
+        var box = dragon.getBoundingBox().inflate(range);
+        int minX = SectionPos.posToSectionCoord(box.minX - REACH_XZ), maxX = SectionPos.posToSectionCoord(box.maxX + REACH_XZ);
+        int minY = SectionPos.posToSectionCoord(box.minY - REACH_Y), maxY = SectionPos.posToSectionCoord(box.maxY);
+        int minZ = SectionPos.posToSectionCoord(box.minZ - REACH_XZ), maxZ = SectionPos.posToSectionCoord(box.maxZ + REACH_XZ);
+
+        double dist = Double.MAX_VALUE;
+        TameableDragon closest = null;
+        for (int x = minX; x <= maxX; x++)
+        {
+            for (int z = minZ; z <= maxZ; z++)
+            {
+                for (int y = minY; y <= maxY; y++)
+                {
+                    var bucket = registry.sections.get(SectionPos.asLong(x, y, z));
+                    if (bucket == null) continue;
+
+                    for (var candidate : bucket)
+                    {
+                        if (candidate == dragon || !candidate.getBoundingBox().intersects(box) || !dragon.canMate(candidate))
+                            continue;
+
+                        var d = dragon.distanceToSqr(candidate);
+                        if (d < dist)
+                        {
+                            closest = candidate;
+                            dist = d;
+                        }
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    private void remove(TameableDragon dragon, long section)
+    {
+        if (section == NONE) return;
+
+        var bucket = sections.get(section);
+        if (bucket != null && bucket.remove(dragon) && bucket.isEmpty()) sections.remove(section);
+    }
+}
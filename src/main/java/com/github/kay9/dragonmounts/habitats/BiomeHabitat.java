@@ -1,10 +1,8 @@
 package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
 import net.minecraft.tags.TagKey;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 
 public record BiomeHabitat(TagKey<Biome> biomeTag) implements Habitat
@@ -15,9 +13,9 @@ public record BiomeHabitat(TagKey<Biome> biomeTag) implements Habitat
             .codec();
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
-        return level.getBiome(pos).is(biomeTag)? 4 : 0;
+        return snapshot.biome().is(biomeTag)? 4 : 0;
     }
 
     @Override
@@ -0,0 +1,82 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers whether blocks of a level are cold enough to snow, by block column.
+ * <p>
+ * Biome temperature is worked out from noise on every call, and footprint abilities ask on every step.
+ * Temperature never changes for a position, so each answer is kept: per column, one pair of 16 bit masks per
+ * 16 block band of height (which heights are known, which of those are cold).
+ * The least recently used columns are dropped past {@link ColumnTemperatureCache#MAX_COLUMNS}.
+ * <p>
+ * Not thread safe; use from the level's own thread.
+ */
+public class ColumnTemperatureCache
+{
+    public static final int MAX_COLUMNS = 1024;
+
+    private static final Map<LevelAccessor, ColumnTemperatureCache> CACHES = new WeakHashMap<>();
+
+    private final Level level;
+    private final Long2ObjectLinkedOpenHashMap<int[]> columns = new Long2ObjectLinkedOpenHashMap<>();
+    private final BlockPos.MutableBlockPos pointer = new BlockPos.MutableBlockPos();
+    private final int minY, bands;
+
+    private ColumnTemperatureCache(Level level)
+    {
+        this.level = level;
+        this.minY = level.getMinBuildHeight();
+        this.bands = (level.getHeight() + 15) >> 4;
+    }
+
+    public static ColumnTemperatureCache get(Level level)
+    {
+        return CACHES.computeIfAbsent(level, l -> new ColumnTemperatureCache(level));
+    }
+
+    public static void unload(LevelAccessor level)
+    {
+        CACHES.remove(level);
+    }
+
+    /**
+     * Same as {@link net.minecraft.world.level.biome.Biome#coldEnoughToSnow}, for the biome at the given position.
+     */
+    public boolean isColdEnoughToSnow(BlockPos pos)
+    {
+        var offset = pos.getY() - minY;
+        if (offset < 0 || offset >> 4 >= bands) return compute(pos.getX(), pos.getY(), pos.getZ()); // out of the build height, not worth keeping
+
+        var key = ChunkPos.asLong(pos.getX(), pos.getZ());
+        var column = columns.getAndMoveToFirst(key);
+        if (column == null)
+        {
+            if (columns.size() >= MAX_COLUMNS) columns.removeLast();
+            columns.putAndMoveToFirst(key, column = new int[bands]);
+        }
+
+        var band = column[offset >> 4];
+        var bit = 1 << (offset & 15);
+        if ((band & bit << 16) == 0) // not known yet
+        {
+            band |= bit << 16;
+            if (compute(pos.getX(), pos.getY(), pos.getZ())) band |= bit;
+            column[offset >> 4] = band;
+        }
+        return (band & bit) != 0;
+    }
+
+    private boolean compute(int x, int y, int z)
+    {
+        pointer.set(x, y, z);
+        return level.getBiome(pointer).value().coldEnoughToSnow(pointer);
+    }
+}
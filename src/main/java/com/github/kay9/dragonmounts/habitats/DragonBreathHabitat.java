@@ -1,11 +1,6 @@
 package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.core.BlockPos;
-import net.minecraft.core.particles.ParticleTypes;
-import net.minecraft.world.entity.EntityType;
-import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.AABB;
 
 public enum DragonBreathHabitat implements Habitat
 {
@@ -14,11 +9,9 @@ public enum DragonBreathHabitat implements Habitat
     public static final Codec<DragonBreathHabitat> CODEC = Codec.unit(INSTANCE);
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
-        return !level.getEntities(EntityType.AREA_EFFECT_CLOUD,
-                new AABB(pos),
-                c -> c.getParticle() == ParticleTypes.DRAGON_BREATH).isEmpty()? 10 : 0;
+        return snapshot.hasDragonBreath()? 10 : 0;
     }
 
     @Override
@@ -1,25 +1,27 @@
 package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.core.BlockPos;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.core.Registry;
 import net.minecraft.tags.TagKey;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.material.Fluid;
 
-public record FluidHabitat(TagKey<Fluid> fluidType) implements Habitat
+public record FluidHabitat(TagKey<Fluid> fluidType, int radius) implements Habitat
 {
-    public static final Codec<FluidHabitat> CODEC = TagKey.codec(Registry.FLUID_REGISTRY)
-            .fieldOf("fluid_tag")
-            .xmap(FluidHabitat::new, FluidHabitat::fluidType)
-            .codec();
+    public static final Codec<FluidHabitat> CODEC = RecordCodecBuilder.create(func -> func.group(
+            TagKey.codec(Registry.FLUID_REGISTRY).fieldOf("fluid_tag").forGetter(FluidHabitat::fluidType),
+            Codec.intRange(1, HabitatSnapshot.MAX_RADIUS).optionalFieldOf("radius", HabitatSnapshot.RADIUS).forGetter(FluidHabitat::radius)
+    ).apply(func, FluidHabitat::new));
+
+    public FluidHabitat(TagKey<Fluid> fluidType)
+    {
+        this(fluidType, HabitatSnapshot.RADIUS);
+    }
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
-        return (int) BlockPos.betweenClosedStream(pos.offset(1, 1, 1), pos.offset(-1, -1, -1))
-                .filter(p -> level.getFluidState(p).is(fluidType))
-                .count() / 2;
+        return snapshot.countFluids(fluidType, radius) / 2;
     }
 
     @Override
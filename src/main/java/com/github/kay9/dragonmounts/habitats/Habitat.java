@@ -1,8 +1,6 @@
 package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.Level;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +25,15 @@ public interface Habitat
         return name;
     }
 
-    int getHabitatPoints(Level level, BlockPos pos);
+    int getHabitatPoints(HabitatSnapshot snapshot);
+
+    /**
+     * How far around the egg (in blocks) this habitat needs the surroundings sampled.
+     */
+    default int radius()
+    {
+        return 0;
+    }
 
     String type();
 }
@@ -0,0 +1,145 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import com.github.kay9.dragonmounts.dragon.DragonBreed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every loaded breed's habitats, compiled into one flat evaluation plan.
+ * <p>
+ * Identical habitats are shared between breeds (records compare by value), so each distinct
+ * habitat is scored at most once per snapshot, no matter how many breeds use it.
+ * {@link PickyHabitat}s are flattened into references to their (also shared) sub-habitats
+ * and stop scoring at the first unmet requirement.
+ */
+public class HabitatPlan
+{
+    public static final HabitatPlan EMPTY = new HabitatPlan(new DragonBreed[0], new int[0][], new Habitat[0], new int[0][]);
+
+    private final DragonBreed[] breeds;
+    private final int[][] breedNodes; // per breed; the nodes its points are summed from
+    private final Habitat[] nodes;
+    private final int[][] pickyChildren; // per node; null unless the node is a picky habitat
+    private final int radius;
+
+    private HabitatPlan(DragonBreed[] breeds, int[][] breedNodes, Habitat[] nodes, int[][] pickyChildren)
+    {
+        this.breeds = breeds;
+        this.breedNodes = breedNodes;
+        this.nodes = nodes;
+        this.pickyChildren = pickyChildren;
+
+        int radius = HabitatSnapshot.RADIUS;
+        for (var node : nodes) radius = Math.max(radius, node.radius());
+        this.radius = radius;
+    }
+
+    public static HabitatPlan compile(Collection<DragonBreed> breeds)
+    {
+        var compiler = new Compiler();
+        var breedArray = breeds.toArray(DragonBreed[]::new);
+        var breedNodes = new int[breedArray.length][];
+        for (int i = 0; i < breedArray.length; i++) breedNodes[i] = compiler.addAll(breedArray[i].habitats());
+
+        return new HabitatPlan(breedArray, breedNodes, compiler.nodes.toArray(Habitat[]::new), compiler.pickyChildren.toArray(int[][]::new));
+    }
+
+    /**
+     * Breeds in the same order as the points returned by {@link HabitatPlan#evaluate(HabitatSnapshot)}
+     */
+    public DragonBreed[] breeds()
+    {
+        return breeds;
+    }
+
+    /**
+     * The largest radius any loaded habitat samples. Snapshots scored by this plan should cover it.
+     */
+    public int radius()
+    {
+        return radius;
+    }
+
+    public int distinctHabitats()
+    {
+        return nodes.length;
+    }
+
+    /**
+     * Score every breed against the snapshot.
+     *
+     * @return habitat points per breed, indexed the same as {@link HabitatPlan#breeds()}
+     */
+    public int[] evaluate(HabitatSnapshot snapshot)
+    {
+        var memo = new int[nodes.length];
+        Arrays.fill(memo, -1);
+
+        var points = new int[breeds.length];
+        for (int i = 0; i < breeds.length; i++)
+            for (int node : breedNodes[i]) points[i] += score(node, snapshot, memo);
+
+        return points;
+    }
+
+    private int score(int node, HabitatSnapshot snapshot, int[] memo)
+    {
+        int points = memo[node];
+        if (points != -1) return points;
+
+        var children = pickyChildren[node];
+        if (children == null) points = nodes[node].getHabitatPoints(snapshot);
+        else
+        {
+            // mirrors PickyHabitat#getHabitatPoints
+            points = 0;
+            for (int child : children)
+            {
+                int i = score(child, snapshot, memo);
+                if (i == 0)
+                {
+                    points = 0;
+                    break;
+                }
+                points += i;
+            }
+            points = (int) (points * 0.75);
+        }
+
+        return memo[node] = points;
+    }
+
+    private static class Compiler
+    {
+        private final Map<Habitat, Integer> indices = new HashMap<>();
+        private final List<Habitat> nodes = new ArrayList<>();
+        private final List<int[]> pickyChildren = new ArrayList<>();
+
+        private int[] addAll(List<Habitat> habitats)
+        {
+            var result = new int[habitats.size()];
+            for (int i = 0; i < result.length; i++) result[i] = add(habitats.get(i));
+            return result;
+        }
+
+        private int add(Habitat habitat)
+        {
+            var existing = indices.get(habitat);
+            if (existing != null) return existing;
+
+            // children first, so they are shared with top-level uses of the same habitats
+            var children = habitat instanceof PickyHabitat picky? addAll(picky.habitats()) : null;
+
+            int index = nodes.size();
+            nodes.add(habitat);
+            pickyChildren.add(children);
+            indices.put(habitat, index);
+            return index;
+        }
+    }
+}
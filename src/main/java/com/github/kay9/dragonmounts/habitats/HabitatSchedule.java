@@ -0,0 +1,149 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import com.github.kay9.dragonmounts.data.BreedManager;
+import com.github.kay9.dragonmounts.dragon.DragonBreed;
+import com.github.kay9.dragonmounts.dragon.DragonEgg;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.Random;
+
+/**
+ * Per-egg habitat update state: when the next update is due, whether it's waiting in the {@link HabitatScheduler},
+ * and the last snapshot of its surroundings (reused while they stay the same).
+ * Shared by every form an incubating egg can take.
+ */
+public class HabitatSchedule
+{
+    private final Incubator owner;
+    private HabitatSnapshot snapshot;
+    private long nextUpdate = -1;
+    private boolean queued;
+
+    public HabitatSchedule(Incubator owner)
+    {
+        this.owner = owner;
+    }
+
+    /**
+     * Enqueue the owner into its level's scheduler if its update is due. Call every server tick.
+     */
+    public void tick(ServerLevel level, Random random)
+    {
+        if (queued || !owner.canUpdateHabitat()) return;
+
+        var time = level.getGameTime();
+        if (nextUpdate < 0) nextUpdate = time + random.nextInt(DragonEgg.HABITAT_UPDATE_INTERVAL); // spread out eggs created together
+        if (time >= nextUpdate)
+        {
+            queued = true;
+            HabitatScheduler.get(level).enqueue(this);
+        }
+    }
+
+    /**
+     * Capture and score the owner's surroundings immediately, regardless of schedule.
+     */
+    public void update()
+    {
+        var plan = BreedManager.getHabitatPlan();
+        owner.applyHabitat(findWinner(plan, capture(plan, false)));
+    }
+
+    /**
+     * Called by the {@link HabitatScheduler} once the owner's turn comes up.
+     *
+     * @return true if the habitat was actually updated
+     */
+    boolean run(int nextInterval)
+    {
+        queued = false;
+        if (!isValid()) return false;
+
+        update();
+        nextUpdate = owner.getLevel().getGameTime() + nextInterval;
+        return true;
+    }
+
+    /**
+     * Called by the {@link HabitatScheduler} once the owner's turn comes up, when habitats are scored off-thread.
+     * Only captures the surroundings; the result comes back through {@link HabitatSchedule#apply}
+     *
+     * @return null if the owner no longer needs an update
+     */
+    @Nullable
+    HabitatSnapshot captureScheduled(HabitatPlan plan)
+    {
+        if (!isValid())
+        {
+            queued = false;
+            return null;
+        }
+        return capture(plan, true);
+    }
+
+    /**
+     * @return true if the habitat was actually updated
+     */
+    boolean apply(@Nullable DragonBreed winner, int nextInterval)
+    {
+        queued = false;
+        if (!isValid()) return false;
+
+        owner.applyHabitat(winner);
+        nextUpdate = owner.getLevel().getGameTime() + nextInterval;
+        return true;
+    }
+
+    private boolean isValid()
+    {
+        return !owner.isRemoved() && owner.canUpdateHabitat();
+    }
+
+    private HabitatSnapshot capture(HabitatPlan plan, boolean offThread)
+    {
+        return snapshot = HabitatSnapshot.capture(owner.getLevel(), owner.getHabitatPos(), plan.radius(), snapshot, offThread);
+    }
+
+    /**
+     * The breed scoring the most habitat points, if any scores enough.
+     * Pure; safe to call off the server thread.
+     */
+    @Nullable
+    public static DragonBreed findWinner(HabitatPlan plan, HabitatSnapshot snapshot)
+    {
+        var breeds = plan.breeds();
+        var allPoints = plan.evaluate(snapshot);
+
+        DragonBreed winner = null;
+        int prevPoints = 0;
+        for (int i = 0; i < breeds.length; i++)
+        {
+            int points = allPoints[i];
+            if (points > 2 && points > prevPoints)
+            {
+                winner = breeds[i];
+                prevPoints = points;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Something incubating a dragon, whose breed adapts to its surroundings.
+     */
+    public interface Incubator
+    {
+        Level getLevel();
+
+        BlockPos getHabitatPos();
+
+        boolean isRemoved();
+
+        boolean canUpdateHabitat();
+
+        void applyHabitat(@Nullable DragonBreed winner);
+    }
+}
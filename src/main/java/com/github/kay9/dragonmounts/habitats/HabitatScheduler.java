@@ -0,0 +1,183 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import com.github.kay9.dragonmounts.DMLConfig;
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.data.BreedManager;
+import com.github.kay9.dragonmounts.dragon.DragonBreed;
+import com.github.kay9.dragonmounts.dragon.DragonEgg;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.LevelAccessor;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads Dragon Egg habitat updates of a level across ticks.
+ * <p>
+ * Eggs enqueue themselves (through their {@link HabitatSchedule}) when their update is due. Each tick, queued eggs are updated until the
+ * configured time budget runs out; the rest are deferred to the next tick.
+ * Intervals between updates are jittered so eggs placed at the same time drift apart.
+ * <p>
+ * With {@link DMLConfig#asyncHabitatUpdates()}, only the surroundings are captured on the server thread (and count against the budget).
+ * Scoring the breeds happens on a small worker pool, and the results are applied on the next tick.
+ */
+public class HabitatScheduler
+{
+    private static final Map<LevelAccessor, HabitatScheduler> SCHEDULERS = new WeakHashMap<>();
+    private static ExecutorService workers;
+
+    private final Queue<HabitatSchedule> queue = new ArrayDeque<>();
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final Random random = new Random();
+    private long updated;
+    private long deferred;
+    private int lastDeferred;
+
+    public static HabitatScheduler get(ServerLevel level)
+    {
+        return SCHEDULERS.computeIfAbsent(level, l -> new HabitatScheduler());
+    }
+
+    public static void tick(LevelAccessor level)
+    {
+        var scheduler = SCHEDULERS.get(level);
+        if (scheduler != null) scheduler.tick();
+    }
+
+    public static void unload(LevelAccessor level)
+    {
+        SCHEDULERS.remove(level);
+    }
+
+    public void enqueue(HabitatSchedule schedule)
+    {
+        queue.add(schedule);
+    }
+
+    /**
+     * Returns a randomly varied number of ticks until the next update of an egg.
+     */
+    public int nextInterval()
+    {
+        var interval = DragonEgg.HABITAT_UPDATE_INTERVAL;
+        var jitter = (int) (interval * DMLConfig.habitatUpdateJitter());
+        return jitter == 0? interval : interval - jitter + random.nextInt(jitter * 2 + 1);
+    }
+
+    private void tick()
+    {
+        applyResults();
+
+        var budget = DMLConfig.habitatUpdateBudget() * 1000L;
+        var start = System.nanoTime();
+        var async = DMLConfig.asyncHabitatUpdates();
+        var ran = false;
+        lastDeferred = 0;
+
+        HabitatSchedule schedule;
+        while ((schedule = queue.peek()) != null)
+        {
+            if (ran && System.nanoTime() - start >= budget) // always make some progress
+            {
+                lastDeferred = queue.size();
+                deferred += lastDeferred;
+                return;
+            }
+
+            queue.remove();
+            if (async) ran |= submit(schedule);
+            else if (schedule.run(nextInterval()))
+            {
+                updated++;
+                ran = true;
+            }
+        }
+    }
+
+    private boolean submit(HabitatSchedule schedule)
+    {
+        var plan = BreedManager.getHabitatPlan();
+        var snapshot = schedule.captureScheduled(plan);
+        if (snapshot == null) return false;
+
+        getWorkers().execute(() ->
+        {
+            DragonBreed winner = null;
+            try
+            {
+                winner = HabitatSchedule.findWinner(plan, snapshot);
+            }
+            catch (Exception e)
+            {
+                DragonMountsLegacy.LOG.error("Failed to evaluate habitat of Dragon Egg at {}", snapshot.pos(), e);
+            }
+            results.add(new Result(schedule, plan, winner));
+        });
+        return true;
+    }
+
+    private void applyResults()
+    {
+        Result result;
+        while ((result = results.poll()) != null)
+        {
+            // breeds were reloaded while this was being scored; the winner may no longer exist, skip this round
+            var winner = result.plan() == BreedManager.getHabitatPlan()? result.winner() : null;
+            if (result.schedule().apply(winner, nextInterval())) updated++;
+        }
+    }
+
+    private static synchronized ExecutorService getWorkers()
+    {
+        if (workers == null)
+        {
+            var threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 4));
+            var count = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(threads, r ->
+            {
+                var thread = new Thread(r, "Dragon Habitat Worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Total habitat updates run by this scheduler.
+     */
+    public long updated()
+    {
+        return updated;
+    }
+
+    /**
+     * Total number of times a due habitat update was pushed back to a later tick for lack of budget.
+     */
+    public long deferred()
+    {
+        return deferred;
+    }
+
+    /**
+     * Habitat updates left waiting at the end of the last tick.
+     */
+    public int lastDeferred()
+    {
+        return lastDeferred;
+    }
+
+    public int queued()
+    {
+        return queue.size();
+    }
+
+    private record Result(HabitatSchedule schedule, HabitatPlan plan, DragonBreed winner) {}
+}
@@ -0,0 +1,170 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import com.github.kay9.dragonmounts.util.BlockChangeTracker;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.phys.AABB;
+
+import javax.annotation.Nullable;
+import java.util.function.Predicate;
+
+/**
+ * A sampled view of the surroundings of a position, taken once per habitat evaluation.
+ * Every breed's habitats are scored against this instead of each querying the level on their own.
+ * <p>
+ * The sampled volume (blocks, fluids, biome, light) is carried over from a previous snapshot
+ * as long as no blocks changed around it. Sky visibility and dragon breath are always re-sampled,
+ * as they can change without any block updates in the volume.
+ * <p>
+ * Snapshots captured {@code offThread} hold no references to the level, so they can be scored off the server thread;
+ * others may read live chunk sections and must stay on it. Tag counts are memoised without synchronization though: a snapshot (and those reusing its volume)
+ * should only be scored by one thread at a time.
+ */
+public class HabitatSnapshot
+{
+    public static final int RADIUS = 1; // sampled block by block; larger radii are counted through section palettes
+    public static final int MAX_RADIUS = 16;
+    private static final int DIAMETER = RADIUS * 2 + 1;
+
+    private final BlockPos pos;
+    private final long capturedAt;
+    private final BlockState[] states;
+    private final int extent;
+    @Nullable private final SectionVolume sections; // only captured if habitats need more than RADIUS
+    private final Holder<Biome> biome;
+    private final int light;
+    private final boolean canSeeSky;
+    private final boolean dragonBreath;
+    private final Object2IntMap<Object> tagCounts; // shared between snapshots of the same volume
+
+    private HabitatSnapshot(BlockPos pos, long capturedAt, BlockState[] states, int extent, @Nullable SectionVolume sections, Holder<Biome> biome, int light, boolean canSeeSky, boolean dragonBreath, Object2IntMap<Object> tagCounts)
+    {
+        this.pos = pos;
+        this.capturedAt = capturedAt;
+        this.states = states;
+        this.extent = extent;
+        this.sections = sections;
+        this.biome = biome;
+        this.light = light;
+        this.canSeeSky = canSeeSky;
+        this.dragonBreath = dragonBreath;
+        this.tagCounts = tagCounts;
+    }
+
+    /**
+     * Sample the surroundings of {@code pos} to be scored on the server thread; see below.
+     */
+    public static HabitatSnapshot capture(Level level, BlockPos pos, int extent, @Nullable HabitatSnapshot previous)
+    {
+        return capture(level, pos, extent, previous, false);
+    }
+
+    /**
+     * Sample the surroundings of {@code pos}, covering habitats looking up to {@code extent} blocks away.
+     * If {@code previous} was taken at the same position and extent and nothing changed since, its volume is reused.
+     *
+     * @param offThread whether the snapshot will be scored off the server thread
+     */
+    public static HabitatSnapshot capture(Level level, BlockPos pos, int extent, @Nullable HabitatSnapshot previous, boolean offThread)
+    {
+        pos = pos.immutable();
+        extent = Math.max(extent, RADIUS);
+        var canSeeSky = level.canSeeSky(pos);
+        var dragonBreath = hasDragonBreath(level, pos);
+
+        if (previous != null && previous.pos.equals(pos) && previous.extent == extent
+                && (!offThread || previous.sections == null || previous.sections.isCopy())
+                && !BlockChangeTracker.hasChanged(level, previous.capturedAt, pos, extent))
+            return new HabitatSnapshot(pos, previous.capturedAt, previous.states, extent, previous.sections, previous.biome, previous.light, canSeeSky, dragonBreath, previous.tagCounts);
+
+        var states = new BlockState[DIAMETER * DIAMETER * DIAMETER];
+        int ox = pos.getX() - RADIUS, oy = pos.getY() - RADIUS, oz = pos.getZ() - RADIUS;
+        NeighbourhoodScanner.scan(level, pos, RADIUS, (p, state) ->
+                states[((p.getY() - oy) * DIAMETER + p.getZ() - oz) * DIAMETER + p.getX() - ox] = state);
+
+        var sections = extent > RADIUS? SectionVolume.capture(level, pos, extent, offThread) : null;
+
+        var counts = new Object2IntOpenHashMap<>();
+        counts.defaultReturnValue(-1);
+
+        return new HabitatSnapshot(pos, level.getGameTime(), states, extent, sections, level.getBiome(pos), level.getLightEmission(pos), canSeeSky, dragonBreath, counts);
+    }
+
+    private static boolean hasDragonBreath(Level level, BlockPos pos)
+    {
+        return !level.getEntities(EntityType.AREA_EFFECT_CLOUD, new AABB(pos), c -> c.getParticle() == ParticleTypes.DRAGON_BREATH).isEmpty();
+    }
+
+    public BlockPos pos()
+    {
+        return pos;
+    }
+
+    /**
+     * Number of blocks matching the given tag within {@code radius} blocks.
+     */
+    public int countBlocks(TagKey<Block> tag, int radius)
+    {
+        return count(tag, radius, s -> s.is(tag));
+    }
+
+    /**
+     * Number of blocks containing a fluid matching the given tag within {@code radius} blocks.
+     */
+    public int countFluids(TagKey<Fluid> tag, int radius)
+    {
+        return count(tag, radius, s -> s.getFluidState().is(tag));
+    }
+
+    private int count(TagKey<?> tag, int radius, Predicate<BlockState> predicate)
+    {
+        if (radius > extent)
+            throw new IllegalArgumentException("Radius " + radius + " exceeds the sampled extent of " + extent);
+
+        var key = radius == RADIUS? tag : new RadiusKey(tag, radius);
+        int count = tagCounts.getInt(key);
+        if (count == -1)
+        {
+            if (radius == RADIUS)
+            {
+                count = 0;
+                for (var state : states) if (predicate.test(state)) count++;
+            }
+            else count = sections.count(pos, radius, predicate);
+            tagCounts.put(key, count);
+        }
+        return count;
+    }
+
+    public Holder<Biome> biome()
+    {
+        return biome;
+    }
+
+    public int light()
+    {
+        return light;
+    }
+
+    public boolean canSeeSky()
+    {
+        return canSeeSky;
+    }
+
+    public boolean hasDragonBreath()
+    {
+        return dragonBreath;
+    }
+
+    private record RadiusKey(TagKey<?> tag, int radius) {}
+}
@@ -2,8 +2,6 @@ package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.Level;
 
 public record HeightHabitat(boolean below, int height) implements Habitat
 {
@@ -13,11 +11,11 @@ public record HeightHabitat(boolean below, int height) implements Habitat
     ).apply(func, HeightHabitat::new));
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
-        int y = pos.getY();
+        int y = snapshot.pos().getY();
         int max = height;
-        return (below? (y < max && !level.canSeeSky(pos)) : y > max)? 3 : 0;
+        return (below? (y < max && !snapshot.canSeeSky()) : y > max)? 3 : 0;
     }
 
     @Override
@@ -2,8 +2,6 @@ package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.Level;
 
 public record LightHabitat(boolean below, int light) implements Habitat
 {
@@ -13,9 +11,9 @@ public record LightHabitat(boolean below, int light) implements Habitat
     ).apply(func, LightHabitat::new));
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
-        int lightEmission = level.getLightEmission(pos);
+        int lightEmission = snapshot.light();
         return (below? lightEmission < light : lightEmission > light)? 3 : 0;
     }
 
@@ -1,25 +1,27 @@
 package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.core.BlockPos;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.core.Registry;
 import net.minecraft.tags.TagKey;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 
-public record NearbyBlocksHabitat(TagKey<Block> tag) implements Habitat
+public record NearbyBlocksHabitat(TagKey<Block> tag, int radius) implements Habitat
 {
-    public static final Codec<NearbyBlocksHabitat> CODEC = TagKey.codec(Registry.BLOCK_REGISTRY)
-            .fieldOf("block_tag")
-            .xmap(NearbyBlocksHabitat::new, NearbyBlocksHabitat::tag)
-            .codec();
+    public static final Codec<NearbyBlocksHabitat> CODEC = RecordCodecBuilder.create(func -> func.group(
+            TagKey.codec(Registry.BLOCK_REGISTRY).fieldOf("block_tag").forGetter(NearbyBlocksHabitat::tag),
+            Codec.intRange(1, HabitatSnapshot.MAX_RADIUS).optionalFieldOf("radius", HabitatSnapshot.RADIUS).forGetter(NearbyBlocksHabitat::radius)
+    ).apply(func, NearbyBlocksHabitat::new));
+
+    public NearbyBlocksHabitat(TagKey<Block> tag)
+    {
+        this(tag, HabitatSnapshot.RADIUS);
+    }
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos basePos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
-        return (int) BlockPos.betweenClosedStream(basePos.offset(1, 1, 1), basePos.offset(-1, -1, -1))
-                .filter(p -> level.getBlockState(p).is(tag))
-                .count() / 2;
+        return snapshot.countBlocks(tag, radius) / 2;
     }
 
     @Override
@@ -0,0 +1,85 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Walks every block in a cube around a position, section by section.
+ * <p>
+ * Each chunk section is looked up once and its states read directly, instead of going through
+ * {@link Level#getBlockState(BlockPos)} (chunk lookup per block) or {@link BlockPos#betweenClosedStream} (stream + a BlockPos per block).
+ * Only a single mutable position is used for the whole walk.
+ */
+public class NeighbourhoodScanner
+{
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+    private static final BlockState VOID_AIR = Blocks.VOID_AIR.defaultBlockState();
+
+    @FunctionalInterface
+    public interface Visitor
+    {
+        /**
+         * @param pos   mutable; copy it if it needs to be kept.
+         * @param state the block state at {@code pos}. Fluids are available through {@link BlockState#getFluidState()}
+         */
+        void visit(BlockPos.MutableBlockPos pos, BlockState state);
+    }
+
+    /**
+     * The sections of a chunk column, indexed as in {@link LevelChunk#getSections()}.
+     */
+    @FunctionalInterface
+    interface Columns
+    {
+        LevelChunkSection[] getSections(int sectionX, int sectionZ);
+    }
+
+    public static void scan(Level level, BlockPos center, int radius, Visitor visitor)
+    {
+        scan(level, (x, z) -> level.getChunk(x, z).getSections(), center, radius, visitor);
+    }
+
+    static void scan(LevelHeightAccessor heights, Columns columns, BlockPos center, int radius, Visitor visitor)
+    {
+        int minX = center.getX() - radius, maxX = center.getX() + radius;
+        int minY = center.getY() - radius, maxY = center.getY() + radius;
+        int minZ = center.getZ() - radius, maxZ = center.getZ() + radius;
+        var pos = new BlockPos.MutableBlockPos();
+
+        for (int sx = SectionPos.blockToSectionCoord(minX); sx <= SectionPos.blockToSectionCoord(maxX); sx++)
+        {
+            for (int sz = SectionPos.blockToSectionCoord(minZ); sz <= SectionPos.blockToSectionCoord(maxZ); sz++)
+            {
+                var sections = columns.getSections(sx, sz);
+
+                for (int sy = SectionPos.blockToSectionCoord(minY); sy <= SectionPos.blockToSectionCoord(maxY); sy++)
+                {
+                    int index = heights.getSectionIndexFromSectionY(sy);
+                    var section = index >= 0 && index < sections.length? sections[index] : null;
+
+                    int x0 = Math.max(minX, SectionPos.sectionToBlockCoord(sx)), x1 = Math.min(maxX, SectionPos.sectionToBlockCoord(sx, 15));
+                    int y0 = Math.max(minY, SectionPos.sectionToBlockCoord(sy)), y1 = Math.min(maxY, SectionPos.sectionToBlockCoord(sy, 15));
+                    int z0 = Math.max(minZ, SectionPos.sectionToBlockCoord(sz)), z1 = Math.min(maxZ, SectionPos.sectionToBlockCoord(sz, 15));
+
+                    for (int y = y0; y <= y1; y++)
+                        for (int z = z0; z <= z1; z++)
+                            for (int x = x0; x <= x1; x++)
+                                visitor.visit(pos.set(x, y, z), getState(heights, section, x, y, z));
+                }
+            }
+        }
+    }
+
+    private static BlockState getState(LevelHeightAccessor heights, LevelChunkSection section, int x, int y, int z)
+    {
+        if (heights.isOutsideBuildHeight(y)) return VOID_AIR; // mirror Level#getBlockState
+        if (section == null || section.hasOnlyAir()) return AIR;
+        return section.getBlockState(x & 15, y & 15, z & 15);
+    }
+}
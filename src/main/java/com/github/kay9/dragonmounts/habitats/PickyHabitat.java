@@ -1,8 +1,6 @@
 package com.github.kay9.dragonmounts.habitats;
 
 import com.mojang.serialization.Codec;
-import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.Level;
 
 import java.util.List;
 
@@ -15,18 +13,26 @@ public record PickyHabitat(List<Habitat> habitats) implements Habitat
             .codec();
 
     @Override
-    public int getHabitatPoints(Level level, BlockPos pos)
+    public int getHabitatPoints(HabitatSnapshot snapshot)
     {
         int points = 0;
         for (var habitat : habitats)
         {
-            int i = habitat.getHabitatPoints(level, pos);
+            int i = habitat.getHabitatPoints(snapshot);
             if (i == 0) return 0; // ALL habitat conditions must be met. Otherwise, nope.
             points += i;
         }
         return (int) (points * 0.75);
     }
 
+    @Override
+    public int radius()
+    {
+        int radius = 0;
+        for (var habitat : habitats) radius = Math.max(radius, habitat.radius());
+        return radius;
+    }
+
     @Override
     public String type()
     {
@@ -0,0 +1,152 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.function.Predicate;
+
+/**
+ * The chunk sections covering a cube around a position, for counting blocks over volumes
+ * too large to sample block by block.
+ * Volumes captured to be read off the server thread copy the section states; otherwise the live containers are kept,
+ * which is only valid on the server thread, and only until blocks change (see BlockChangeTracker).
+ * <p>
+ * Counting goes through each section's palette: sections whose palette holds no matching state are skipped outright,
+ * sections entirely inside the counted cube are tallied per palette entry, and only partially covered sections are read per block.
+ */
+public class SectionVolume
+{
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final PalettedContainer<BlockState>[] sections; // null entries are empty or outside the build height
+    private final int minSectionX, minSectionY, minSectionZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final int minBuildHeight, maxBuildHeight;
+    private final boolean copied;
+
+    private SectionVolume(PalettedContainer<BlockState>[] sections, boolean copied, int minSectionX, int minSectionY, int minSectionZ, int sizeX, int sizeY, int sizeZ, int minBuildHeight, int maxBuildHeight)
+    {
+        this.sections = sections;
+        this.copied = copied;
+        this.minSectionX = minSectionX;
+        this.minSectionY = minSectionY;
+        this.minSectionZ = minSectionZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.minBuildHeight = minBuildHeight;
+        this.maxBuildHeight = maxBuildHeight;
+    }
+
+    /**
+     * @param copy whether the volume will be read off the server thread
+     */
+    @SuppressWarnings("unchecked")
+    public static SectionVolume capture(Level level, BlockPos center, int radius, boolean copy)
+    {
+        int minX = SectionPos.blockToSectionCoord(center.getX() - radius), maxX = SectionPos.blockToSectionCoord(center.getX() + radius);
+        int minY = SectionPos.blockToSectionCoord(center.getY() - radius), maxY = SectionPos.blockToSectionCoord(center.getY() + radius);
+        int minZ = SectionPos.blockToSectionCoord(center.getZ() - radius), maxZ = SectionPos.blockToSectionCoord(center.getZ() + radius);
+        int sizeX = maxX - minX + 1, sizeY = maxY - minY + 1, sizeZ = maxZ - minZ + 1;
+        var sections = (PalettedContainer<BlockState>[]) new PalettedContainer[sizeX * sizeY * sizeZ];
+
+        for (int sx = minX; sx <= maxX; sx++)
+        {
+            for (int sz = minZ; sz <= maxZ; sz++)
+            {
+                var chunk = level.getChunk(sx, sz);
+                var chunkSections = chunk.getSections();
+                for (int sy = minY; sy <= maxY; sy++)
+                {
+                    int index = chunk.getSectionIndexFromSectionY(sy);
+                    if (index < 0 || index >= chunkSections.length) continue;
+
+                    var section = chunkSections[index];
+                    if (section != null && !section.hasOnlyAir())
+                        sections[((sy - minY) * sizeZ + sz - minZ) * sizeX + sx - minX] = copy? section.getStates().copy() : section.getStates();
+                }
+            }
+        }
+
+        return new SectionVolume(sections, copy, minX, minY, minZ, sizeX, sizeY, sizeZ, level.getMinBuildHeight(), level.getMaxBuildHeight());
+    }
+
+    /**
+     * Whether this holds copies of the section states, safe to read off the server thread.
+     */
+    public boolean isCopy()
+    {
+        return copied;
+    }
+
+    /**
+     * Count the blocks matching {@code predicate} in the cube of the given radius around {@code center}.
+     * The cube must lie within the volume this was captured with.
+     */
+    public int count(BlockPos center, int radius, Predicate<BlockState> predicate)
+    {
+        int minX = center.getX() - radius, maxX = center.getX() + radius;
+        int minY = Math.max(center.getY() - radius, minBuildHeight), maxY = Math.min(center.getY() + radius, maxBuildHeight - 1);
+        int minZ = center.getZ() - radius, maxZ = center.getZ() + radius;
+        boolean airMatches = predicate.test(AIR);
+        int total = 0;
+
+        for (int sy = SectionPos.blockToSectionCoord(minY); sy <= SectionPos.blockToSectionCoord(maxY); sy++)
+        {
+            for (int sz = SectionPos.blockToSectionCoord(minZ); sz <= SectionPos.blockToSectionCoord(maxZ); sz++)
+            {
+                for (int sx = SectionPos.blockToSectionCoord(minX); sx <= SectionPos.blockToSectionCoord(maxX); sx++)
+                {
+                    int x0 = Math.max(minX, SectionPos.sectionToBlockCoord(sx)), x1 = Math.min(maxX, SectionPos.sectionToBlockCoord(sx, 15));
+                    int y0 = Math.max(minY, SectionPos.sectionToBlockCoord(sy)), y1 = Math.min(maxY, SectionPos.sectionToBlockCoord(sy, 15));
+                    int z0 = Math.max(minZ, SectionPos.sectionToBlockCoord(sz)), z1 = Math.min(maxZ, SectionPos.sectionToBlockCoord(sz, 15));
+
+                    var states = sections[((sy - minSectionY) * sizeZ + sz - minSectionZ) * sizeX + sx - minSectionX];
+                    if (states == null)
+                    {
+                        if (airMatches) total += (x1 - x0 + 1) * (y1 - y0 + 1) * (z1 - z0 + 1);
+                        continue;
+                    }
+
+                    if (!states.maybeHas(predicate)) continue; // nothing in this section's palette matches
+
+                    if (x1 - x0 == 15 && y1 - y0 == 15 && z1 - z0 == 15) // whole section is covered, tally by palette entry
+                    {
+                        var counter = new Counter(predicate);
+                        states.count(counter);
+                        total += counter.count;
+                        continue;
+                    }
+
+                    for (int y = y0; y <= y1; y++)
+                        for (int z = z0; z <= z1; z++)
+                            for (int x = x0; x <= x1; x++)
+                                if (predicate.test(states.get(x & 15, y & 15, z & 15))) total++;
+                }
+            }
+        }
+
+        return total;
+    }
+
+    private static class Counter implements PalettedContainer.CountConsumer<BlockState>
+    {
+        private final Predicate<BlockState> predicate;
+        private int count;
+
+        private Counter(Predicate<BlockState> predicate)
+        {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(BlockState state, int count)
+        {
+            if (predicate.test(state)) this.count += count;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.kay9.dragonmounts.mixins;
+
+import com.github.kay9.dragonmounts.util.BlockChangeTracker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Every block state write in a loaded chunk ends up here, whatever its update flags; neighbour update events don't
+ * fire for writes without {@code Block.UPDATE_NEIGHBORS} (e.g. structures placed with flag 2).
+ */
+@Mixin(LevelChunk.class)
+public class TrackBlockChangesMixin
+{
+    @Inject(method = "setBlockState(Lnet/minecraft/core/BlockPos;Lnet/minecraft/world/level/block/state/BlockState;Z)Lnet/minecraft/world/level/block/state/BlockState;", at = @At("RETURN"))
+    private void dragonmounts_trackBlockChanges(BlockPos pos, BlockState state, boolean isMoving, CallbackInfoReturnable<BlockState> cir)
+    {
+        if (cir.getReturnValue() != null) // null if nothing changed
+            BlockChangeTracker.markChanged(((LevelChunk) (Object) this).getLevel(), pos);
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.kay9.dragonmounts.network;
+
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.dragon.DragonBreed;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The breeds last received from a server, saved so they can be used as soon as the client reconnects.
+ * Breeds are stored in the same encoding as {@link UpdateBreedsPacket}, behind a magic number and format version.
+ */
+class BreedCacheFile
+{
+    private static final int MAGIC = 0x444D4C42; // "DMLB"
+    private static final int VERSION = 1;
+
+    @Nullable
+    static Contents read(Path file)
+    {
+        if (!Files.isRegularFile(file)) return null;
+
+        try
+        {
+            var buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(Files.readAllBytes(file)));
+            if (buf.readInt() != MAGIC || buf.readInt() != VERSION) return null;
+
+            var digest = buf.readLong();
+            var breeds = new UpdateBreedsPacket(buf);
+            return new Contents(digest, breeds.breeds(), breeds.hashes());
+        }
+        catch (Exception e) // a corrupt or outdated cache only costs a full sync
+        {
+            DragonMountsLegacy.LOG.warn("Failed to read cached Dragon Breeds from {}", file, e);
+            return null;
+        }
+    }
+
+    static void write(Path file, long digest, Collection<DragonBreed> breeds)
+    {
+        var buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeInt(MAGIC);
+        buf.writeInt(VERSION);
+        buf.writeLong(digest);
+        new UpdateBreedsPacket(breeds).encode(buf);
+
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Files.write(file, Arrays.copyOf(buf.array(), buf.writerIndex()));
+        }
+        catch (IOException e)
+        {
+            DragonMountsLegacy.LOG.warn("Failed to cache Dragon Breeds to {}", file, e);
+        }
+    }
+
+    record Contents(long digest, Collection<DragonBreed> breeds, long[] hashes) {}
+}
@@ -0,0 +1,45 @@
+package com.github.kay9.dragonmounts.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Tells clients which breeds the server has, by id and content hash.
+ * Clients reuse cached copies of breeds with matching hashes, and ask for the rest with a {@link RequestBreedsPacket}.
+ */
+public class BreedDigestPacket
+{
+    private final List<BreedSync.Entry> entries;
+    private final long digest; // of the whole set
+
+    public BreedDigestPacket(List<BreedSync.Entry> entries, long digest)
+    {
+        this.entries = entries;
+        this.digest = digest;
+    }
+
+    public BreedDigestPacket(FriendlyByteBuf buf)
+    {
+        this.digest = buf.readLong();
+        this.entries = buf.readList(b -> new BreedSync.Entry(b.readResourceLocation(), b.readLong()));
+    }
+
+    public void encode(FriendlyByteBuf buf)
+    {
+        buf.writeLong(digest);
+        buf.writeCollection(entries, (b, e) ->
+        {
+            b.writeResourceLocation(e.id());
+            b.writeLong(e.hash());
+        });
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> ctx)
+    {
+        ctx.get().enqueueWork(() -> BreedSync.receiveDigest(entries, digest));
+        ctx.get().setPacketHandled(true);
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.kay9.dragonmounts.network;
+
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.client.ClientBreedSync;
+import com.github.kay9.dragonmounts.data.BreedManager;
+import com.github.kay9.dragonmounts.dragon.DragonBreed;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.PacketDistributor;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps client breeds in sync with the server without resending breeds clients already have.
+ * <p>
+ * The server sends a {@link BreedDigestPacket} listing its breeds by id and content hash. The client looks each hash up in its cache,
+ * asks for the missing ones with a {@link RequestBreedsPacket} and gets them in an {@link UpdateBreedsPacket}.
+ * Once every breed in the digest is known, the client's registry is replaced with exactly those breeds, which also drops removed ones.
+ * <p>
+ * The client cache is keyed by content hash only: the hash covers everything synced about a breed, including its id,
+ * so equal hashes mean the same breed, whichever server it came from.
+ * <p>
+ * Clients also save the last synced set per server (see {@link BreedCacheFile}) and load it as soon as they connect.
+ * If the server's digest of its whole set matches the saved one, the sync is already done; otherwise only the difference is sent.
+ */
+public class BreedSync
+{
+    // server side
+    private static Collection<DragonBreed> digested;
+    private static List<Entry> entries;
+    private static long digest;
+
+    // client side
+    private static final Long2ObjectMap<DragonBreed> CACHE = new Long2ObjectOpenHashMap<>();
+    private static List<Entry> pending;
+    private static long pendingDigest;
+    private static long appliedDigest;
+    private static Path cacheFile;
+
+    public static void send(@Nullable ServerPlayer player)
+    {
+        var breeds = BreedManager.getBreeds();
+        if (breeds != digested) // reloaded since last time
+        {
+            var list = new ArrayList<Entry>(breeds.size());
+            for (var breed : breeds) list.add(new Entry(breed.id(), UpdateBreedsPacket.hash(breed)));
+            entries = list;
+            digest = digest(list);
+            digested = breeds;
+        }
+
+        var target = player == null? PacketDistributor.ALL.noArg() : PacketDistributor.PLAYER.with(() -> player);
+        DragonMountsLegacy.NETWORK.send(target, new BreedDigestPacket(entries, digest));
+    }
+
+    private static long digest(List<Entry> entries)
+    {
+        if (entries.isEmpty()) return 0;
+        return Hashing.combineUnordered(entries.stream().map(e -> HashCode.fromLong(e.hash())).toList()).asLong();
+    }
+
+    /**
+     * Called on the client when joining a server, with the file breeds from that server are cached in (if any).
+     * Cached breeds are put to use right away, rather than waiting for the server.
+     */
+    public static void connect(@Nullable Path file)
+    {
+        cacheFile = file;
+        pending = null;
+        appliedDigest = 0;
+        if (file == null) return;
+
+        var contents = BreedCacheFile.read(file);
+        if (contents == null) return;
+
+        var i = 0;
+        for (var breed : contents.breeds()) CACHE.put(contents.hashes()[i++], breed);
+        BreedManager.populate(contents.breeds()::forEach);
+        appliedDigest = contents.digest();
+    }
+
+    public static void disconnect()
+    {
+        cacheFile = null;
+        pending = null;
+    }
+
+    static void sendRequested(ServerPlayer player, List<ResourceLocation> ids)
+    {
+        var breeds = ids.stream().map(BreedManager::getNullable).filter(Objects::nonNull).toList();
+        DragonMountsLegacy.NETWORK.send(PacketDistributor.PLAYER.with(() -> player), new UpdateBreedsPacket(breeds));
+    }
+
+    static void receiveDigest(List<Entry> entries, long digest)
+    {
+        if (digest == appliedDigest && pending == null) return; // what we have is up to date
+
+        pending = entries;
+        pendingDigest = digest;
+
+        var missing = new ArrayList<ResourceLocation>();
+        for (var entry : entries) if (!CACHE.containsKey(entry.hash())) missing.add(entry.id());
+
+        if (missing.isEmpty()) apply();
+        else DragonMountsLegacy.NETWORK.sendToServer(new RequestBreedsPacket(missing));
+    }
+
+    static void receive(Collection<DragonBreed> breeds, long[] hashes)
+    {
+        var i = 0;
+        for (var breed : breeds) CACHE.put(hashes[i++], breed);
+
+        // a reply to an older digest may not complete the current one; the newer reply is on its way
+        if (pending != null && pending.stream().allMatch(e -> CACHE.containsKey(e.hash()))) apply();
+    }
+
+    private static void apply()
+    {
+        var entries = pending;
+        pending = null;
+
+        var breeds = new ArrayList<DragonBreed>(entries.size());
+        for (var entry : entries) breeds.add(CACHE.get(entry.hash()));
+        BreedManager.populate(breeds::forEach);
+        appliedDigest = pendingDigest;
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> ClientBreedSync::refreshEntities); // their indices may have been resolved against the old breeds
+
+        // only keep what's in use, so the cache doesn't grow with every reload
+        CACHE.clear();
+        for (int i = 0; i < entries.size(); i++) CACHE.put(entries.get(i).hash(), breeds.get(i));
+
+        if (cacheFile != null) BreedCacheFile.write(cacheFile, appliedDigest, breeds);
+    }
+
+    public record Entry(ResourceLocation id, long hash) {}
+}
@@ -0,0 +1,141 @@
+package com.github.kay9.dragonmounts.network;
+
+import com.github.kay9.dragonmounts.client.ClientDragonStateSync;
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Dragon-specific state (breed, saddle, age) of any number of dragons; see {@link DragonStateSync}.
+ * Entries are written compactly, and the whole payload is deflated once it's large enough for that to pay off.
+ */
+public class DragonStatePacket
+{
+    private static final int COMPRESSION_THRESHOLD = 256; // bytes
+    private static final int MAX_SIZE = 1 << 21;
+
+    private final List<Entry> entries;
+
+    public DragonStatePacket(List<Entry> entries)
+    {
+        this.entries = entries;
+    }
+
+    public DragonStatePacket(FriendlyByteBuf buf)
+    {
+        var compressed = buf.readBoolean();
+        var payload = buf;
+        if (compressed)
+        {
+            var size = buf.readVarInt();
+            if (size > MAX_SIZE) throw new IllegalArgumentException("Dragon state payload too large: " + size);
+            payload = new FriendlyByteBuf(Unpooled.wrappedBuffer(inflate(buf.readByteArray(), size)));
+        }
+        this.entries = payload.readList(Entry::read);
+    }
+
+    public void encode(FriendlyByteBuf buf)
+    {
+        var start = buf.writerIndex();
+        var payload = new FriendlyByteBuf(Unpooled.buffer());
+        payload.writeCollection(entries, (b, e) -> e.write(b));
+
+        var size = payload.writerIndex();
+        var compress = size >= COMPRESSION_THRESHOLD;
+        buf.writeBoolean(compress);
+        if (compress)
+        {
+            buf.writeVarInt(size);
+            buf.writeByteArray(deflate(payload.array(), size));
+        }
+        else buf.writeBytes(payload, 0, size);
+
+        DragonStateSync.recordSent(entries, buf.writerIndex() - start);
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> ctx)
+    {
+        ctx.get().enqueueWork(() -> DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientDragonStateSync.apply(entries)));
+        ctx.get().setPacketHandled(true);
+    }
+
+    private static byte[] deflate(byte[] bytes, int length)
+    {
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(bytes, 0, length);
+        deflater.finish();
+
+        var out = new ByteArrayOutputStream(length / 2);
+        var buffer = new byte[1024];
+        while (!deflater.finished()) out.write(buffer, 0, deflater.deflate(buffer));
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes, int size)
+    {
+        var inflater = new Inflater();
+        inflater.setInput(bytes);
+        var result = new byte[size];
+        try
+        {
+            var read = 0;
+            while (read < size && !inflater.finished())
+            {
+                var n = inflater.inflate(result, read, size - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if (read != size) throw new IllegalArgumentException("Dragon state payload is truncated");
+        }
+        catch (DataFormatException e)
+        {
+            throw new IllegalArgumentException("Malformed dragon state payload", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+        return result;
+    }
+
+    /**
+     * @param breed BreedManager index
+     * @param ageTime game time {@code age} was taken at; clients derive the current age from it
+     */
+    public record Entry(int entityId, int breed, boolean saddled, int age, long ageTime)
+    {
+        public static Entry of(TameableDragon dragon)
+        {
+            return new Entry(dragon.getId(), dragon.getBreedIndex(), dragon.isSaddled(), dragon.getAge(), dragon.level.getGameTime());
+        }
+
+        public void write(FriendlyByteBuf buf)
+        {
+            buf.writeVarInt(entityId);
+            buf.writeVarInt(breed + 1); // -1 if unregistered
+            buf.writeBoolean(saddled);
+            buf.writeVarInt((age << 1) ^ (age >> 31)); // zigzag; babies have negative ages
+            buf.writeVarLong(ageTime);
+        }
+
+        public static Entry read(FriendlyByteBuf buf)
+        {
+            var entityId = buf.readVarInt();
+            var breed = buf.readVarInt() - 1;
+            var saddled = buf.readBoolean();
+            var age = buf.readVarInt();
+            return new Entry(entityId, breed, saddled, (age >>> 1) ^ -(age & 1), buf.readVarLong());
+        }
+    }
+}
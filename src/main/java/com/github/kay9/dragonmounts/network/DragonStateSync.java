@@ -0,0 +1,112 @@
+package com.github.kay9.dragonmounts.network;
+
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraftforge.network.PacketDistributor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Syncs changes to dragon-specific state to clients over the mod channel instead of per-entity synched data.
+ * <p>
+ * The initial state goes out with the dragon's spawn packet (see {@link TameableDragon#writeSpawnData}), so this only
+ * carries changes. They are sent at the end of the tick, so a dragon changing several things in one tick is sent once,
+ * and every player gets the changes of all dragons they track in a single {@link DragonStatePacket}.
+ * <p>
+ * What's sent is counted per recipient. DragonStateSyncTests measures the same changes against the synched data
+ * packets they used to be.
+ */
+public class DragonStateSync
+{
+    private static final Map<TameableDragon, Set<ServerPlayer>> TRACKERS = new WeakHashMap<>();
+    private static final Set<TameableDragon> DIRTY = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private static long packets, entries, bytes;
+
+    public static void startTracking(ServerPlayer player, Entity target)
+    {
+        if (target instanceof TameableDragon dragon)
+            TRACKERS.computeIfAbsent(dragon, d -> Collections.newSetFromMap(new IdentityHashMap<>())).add(player);
+    }
+
+    public static void stopTracking(ServerPlayer player, Entity target)
+    {
+        if (target instanceof TameableDragon dragon)
+        {
+            var players = TRACKERS.get(dragon);
+            if (players != null && players.remove(player) && players.isEmpty()) TRACKERS.remove(dragon);
+        }
+    }
+
+    public static void markDirty(TameableDragon dragon)
+    {
+        DIRTY.add(dragon);
+    }
+
+    /**
+     * Called when a {@link DragonStatePacket} is encoded to be sent; each is sent to one player.
+     */
+    static void recordSent(List<DragonStatePacket.Entry> sent, int size)
+    {
+        packets++;
+        entries += sent.size();
+        bytes += size;
+    }
+
+    /**
+     * Dragon state packets sent, counting each recipient.
+     */
+    public static long packets()
+    {
+        return packets;
+    }
+
+    /**
+     * Dragon states sent, counting each recipient; as synched data, each would have been a packet of its own.
+     */
+    public static long entries()
+    {
+        return entries;
+    }
+
+    /**
+     * Payload bytes of all dragon state packets sent, counting each recipient.
+     */
+    public static long bytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Call at the end of every server tick.
+     */
+    public static void flush()
+    {
+        if (DIRTY.isEmpty()) return;
+
+        var batches = new IdentityHashMap<ServerPlayer, List<DragonStatePacket.Entry>>();
+        for (var dragon : DIRTY)
+        {
+            var players = TRACKERS.get(dragon);
+            if (players == null || dragon.isRemoved()) continue;
+
+            var entry = DragonStatePacket.Entry.of(dragon);
+            for (var player : players) batches.computeIfAbsent(player, p -> new ArrayList<>()).add(entry);
+        }
+        DIRTY.clear();
+
+        batches.forEach((player, entries) ->
+        {
+            if (!player.hasDisconnected())
+                DragonMountsLegacy.NETWORK.send(PacketDistributor.PLAYER.with(() -> player), new DragonStatePacket(entries));
+        });
+    }
+}
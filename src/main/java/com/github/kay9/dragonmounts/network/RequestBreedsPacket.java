@@ -0,0 +1,39 @@
+package com.github.kay9.dragonmounts.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sent by clients in reply to a {@link BreedDigestPacket}, listing the breeds they have no up-to-date copy of.
+ * Answered with an {@link UpdateBreedsPacket}.
+ */
+public class RequestBreedsPacket
+{
+    private final List<ResourceLocation> breeds;
+
+    public RequestBreedsPacket(List<ResourceLocation> breeds)
+    {
+        this.breeds = breeds;
+    }
+
+    public RequestBreedsPacket(FriendlyByteBuf buf)
+    {
+        this.breeds = buf.readList(FriendlyByteBuf::readResourceLocation);
+    }
+
+    public void encode(FriendlyByteBuf buf)
+    {
+        buf.writeCollection(breeds, FriendlyByteBuf::writeResourceLocation);
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> ctx)
+    {
+        var player = ctx.get().getSender();
+        if (player != null) ctx.get().enqueueWork(() -> BreedSync.sendRequested(player, breeds));
+        ctx.get().setPacketHandled(true);
+    }
+}
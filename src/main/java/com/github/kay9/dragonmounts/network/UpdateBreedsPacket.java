@@ -1,53 +1,87 @@
 package com.github.kay9.dragonmounts.network;
 
-import com.github.kay9.dragonmounts.DragonMountsLegacy;
-import com.github.kay9.dragonmounts.data.BreedManager;
 import com.github.kay9.dragonmounts.dragon.DragonBreed;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.Unpooled;
 import net.minecraft.core.Registry;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.core.particles.ParticleType;
 import net.minecraft.network.FriendlyByteBuf;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.storage.loot.BuiltInLootTables;
 import net.minecraftforge.network.NetworkEvent;
-import net.minecraftforge.network.PacketDistributor;
 
-import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+/**
+ * Sends the breeds a client asked for in its {@link RequestBreedsPacket}: those it had no cached copy of.
+ * Received breeds are cached by their {@link UpdateBreedsPacket#hash content hash}.
+ */
 public class UpdateBreedsPacket
 {
-    public static final UpdateBreedsPacket INSTANCE = new UpdateBreedsPacket(); // breeds collection is known on the server, no need to make new instances
-
     private final Collection<DragonBreed> breeds;
+    private final long[] hashes; // client side only
 
-    private UpdateBreedsPacket()
+    public UpdateBreedsPacket(Collection<DragonBreed> breeds)
     {
-        this.breeds = Collections.emptyList();
+        this.breeds = breeds;
+        this.hashes = new long[0];
     }
 
     public UpdateBreedsPacket(FriendlyByteBuf buf)
     {
-        this.breeds = buf.readList(UpdateBreedsPacket::fromBytes);
+        var size = buf.readVarInt();
+        this.breeds = new ArrayList<>(size);
+        this.hashes = new long[size];
+        for (int i = 0; i < size; i++)
+        {
+            var start = buf.readerIndex();
+            breeds.add(fromBytes(buf));
+            hashes[i] = hash(buf, start, buf.readerIndex());
+        }
     }
 
     public void encode(FriendlyByteBuf buf)
     {
-        buf.writeCollection(BreedManager.getBreeds(), UpdateBreedsPacket::toBytes);
+        buf.writeCollection(breeds, UpdateBreedsPacket::toBytes);
     }
 
     public void handle(Supplier<NetworkEvent.Context> ctx)
     {
-        ctx.get().enqueueWork(() -> BreedManager.populate(breeds::forEach));
+        ctx.get().enqueueWork(() -> BreedSync.receive(breeds, hashes));
         ctx.get().setPacketHandled(true);
     }
 
+    Collection<DragonBreed> breeds()
+    {
+        return breeds;
+    }
+
+    long[] hashes()
+    {
+        return hashes;
+    }
+
+    /**
+     * Hash of everything clients know about a breed; equal hashes mean the client's copy is up to date.
+     */
+    public static long hash(DragonBreed breed)
+    {
+        var buf = new FriendlyByteBuf(Unpooled.buffer());
+        toBytes(buf, breed);
+        return hash(buf, 0, buf.writerIndex());
+    }
+
+    private static long hash(FriendlyByteBuf buf, int start, int end)
+    {
+        return Hashing.murmur3_128().hashBytes(buf.nioBuffer(start, end - start)).asLong();
+    }
+
     private static void toBytes(FriendlyByteBuf buf, DragonBreed breed)
     {
         buf.writeResourceLocation(breed.id());
@@ -94,10 +128,4 @@ public class UpdateBreedsPacket
         }
         return Optional.empty();
     }
-
-    public static void send(@Nullable ServerPlayer player)
-    {
-        var target = player == null? PacketDistributor.ALL.noArg() : PacketDistributor.PLAYER.with(() -> player);
-        DragonMountsLegacy.NETWORK.send(target, INSTANCE);
-    }
 }
@@ -0,0 +1,81 @@
+package com.github.kay9.dragonmounts.util;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers the last game tick blocks changed in a chunk section, per level. Fed by every block state write in
+ * loaded chunks (see TrackBlockChangesMixin).
+ * Lets cached views of the world (habitat snapshots, etc.) cheaply ask "did anything change around here since I looked?"
+ * <p>
+ * Entries older than {@link BlockChangeTracker#MAX_AGE} are pruned, so anything captured before that is always considered stale.
+ */
+public class BlockChangeTracker
+{
+    public static final int MAX_AGE = 6000; // 5 minutes
+
+    private static final Map<LevelAccessor, BlockChangeTracker> TRACKERS = new WeakHashMap<>();
+
+    private final Long2LongMap lastChanged = new Long2LongOpenHashMap();
+    private long lastPruned;
+
+    private BlockChangeTracker()
+    {
+        lastChanged.defaultReturnValue(Long.MIN_VALUE);
+    }
+
+    public static void markChanged(LevelAccessor level, BlockPos pos)
+    {
+        if (level.isClientSide() || !(level instanceof Level l)) return;
+
+        var time = l.getGameTime();
+        var tracker = TRACKERS.computeIfAbsent(level, k -> new BlockChangeTracker());
+        tracker.lastChanged.put(SectionPos.asLong(pos), time);
+        if (time - tracker.lastPruned > MAX_AGE) tracker.prune(time);
+    }
+
+    public static void unload(LevelAccessor level)
+    {
+        TRACKERS.remove(level);
+    }
+
+    /**
+     * Returns true if any block in the sections covering the cube of the given radius around {@code pos}
+     * may have changed at or after {@code since}.
+     */
+    public static boolean hasChanged(Level level, long since, BlockPos pos, int radius)
+    {
+        if (level.getGameTime() - since > MAX_AGE) return true; // records may have been pruned
+
+        var tracker = TRACKERS.get(level);
+        if (tracker == null) return false;
+
+        int minX = SectionPos.blockToSectionCoord(pos.getX() - radius);
+        int minY = SectionPos.blockToSectionCoord(pos.getY() - radius);
+        int minZ = SectionPos.blockToSectionCoord(pos.getZ() - radius);
+        int maxX = SectionPos.blockToSectionCoord(pos.getX() + radius);
+        int maxY = SectionPos.blockToSectionCoord(pos.getY() + radius);
+        int maxZ = SectionPos.blockToSectionCoord(pos.getZ() + radius);
+
+        for (int x = minX; x <= maxX; x++)
+            for (int y = minY; y <= maxY; y++)
+                for (int z = minZ; z <= maxZ; z++)
+                    if (tracker.lastChanged.get(SectionPos.asLong(x, y, z)) >= since) return true;
+
+        return false;
+    }
+
+    private void prune(long time)
+    {
+        for (var it = lastChanged.values().iterator(); it.hasNext();)
+            if (time - it.nextLong() > MAX_AGE) it.remove();
+        lastPruned = time;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.kay9.dragonmounts.dragon.ai;
+
+import com.github.kay9.dragonmounts.DMLRegistry;
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * A crowded breeding pen: {@link MateRegistry#findMate} has to agree with the entity query it replaced,
+ * and the time both take is logged for comparison.
+ */
+@GameTestHolder(DragonMountsLegacy.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class MateSearchTests
+{
+    private static final int DRAGONS = 200;
+    private static final int IN_LOVE = 40;
+    private static final int ROUNDS = 20;
+    private static final double RANGE = 8;
+
+    @GameTest(template = "breeding_pen")
+    public static void crowdedPen(GameTestHelper helper)
+    {
+        var random = new Random(0);
+        var dragons = new ArrayList<TameableDragon>(DRAGONS);
+        for (int i = 0; i < DRAGONS; i++)
+        {
+            // pen floor is 30 by 30 inside the walls
+            var dragon = helper.spawn(DMLRegistry.DRAGON.get(), new Vec3(2.5 + random.nextDouble() * 27, 1, 2.5 + random.nextDouble() * 27));
+            dragon.setTame(true);
+            dragon.setAge(0);
+            if (i < IN_LOVE) dragon.setInLove(null);
+            dragons.add(dragon);
+        }
+
+        // dragons register themselves as they tick; check before any of them gets to breeding
+        helper.runAfterDelay(1, () ->
+        {
+            for (var dragon : dragons)
+            {
+                var expected = queryEntities(dragon);
+                var actual = MateRegistry.findMate(dragon, RANGE);
+                if (expected == actual) continue;
+
+                // equally close candidates may come back in either order
+                helper.assertTrue(expected != null && actual != null && dragon.distanceToSqr(expected) == dragon.distanceToSqr(actual),
+                        "Registry found " + actual + " as mate for " + dragon + ", entity query found " + expected);
+            }
+
+            var registryTime = time(dragons, d -> MateRegistry.findMate(d, RANGE));
+            var queryTime = time(dragons, MateSearchTests::queryEntities);
+            DragonMountsLegacy.LOG.info("Mate search over {} dragons ({} in love), {} rounds: registry {} us, entity query {} us",
+                    DRAGONS, IN_LOVE, ROUNDS, registryTime / 1000, queryTime / 1000);
+
+            helper.succeed();
+        });
+    }
+
+    // what DragonBreedGoal used to do
+    private static TameableDragon queryEntities(TameableDragon dragon)
+    {
+        var candidates = dragon.level.getEntitiesOfClass(TameableDragon.class, dragon.getBoundingBox().inflate(RANGE));
+        double dist = Double.MAX_VALUE;
+        TameableDragon closest = null;
+        for (var candidate : candidates)
+        {
+            if (dragon.canMate(candidate) && dragon.distanceToSqr(candidate) < dist)
+            {
+                closest = candidate;
+                dist = dragon.distanceToSqr(candidate);
+            }
+        }
+        return closest;
+    }
+
+    // every in-love dragon polls for a mate, as their breed goals would
+    private static long time(List<TameableDragon> dragons, Function<TameableDragon, TameableDragon> search)
+    {
+        var start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++)
+            for (var dragon : dragons)
+                if (dragon.isInLove()) search.apply(dragon);
+        return System.nanoTime() - start;
+    }
+}
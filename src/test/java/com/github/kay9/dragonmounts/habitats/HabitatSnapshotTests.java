@@ -0,0 +1,36 @@
+package com.github.kay9.dragonmounts.habitats;
+
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+
+/**
+ * {@link HabitatSnapshot}s must not be reused once blocks around them change, however the change was made.
+ */
+@GameTestHolder(DragonMountsLegacy.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class HabitatSnapshotTests
+{
+    @GameTest(template = "breeding_pen")
+    public static void recaptureAfterClientOnlyUpdate(GameTestHelper helper)
+    {
+        var level = helper.getLevel();
+        var pos = helper.absolutePos(new BlockPos(15, 2, 15));
+
+        var before = HabitatSnapshot.capture(level, pos, HabitatSnapshot.RADIUS, null);
+        helper.assertTrue(before.countBlocks(BlockTags.LOGS, HabitatSnapshot.RADIUS) == 0, "Expected no logs around an empty spot");
+
+        // no neighbour updates, like structure placement
+        level.setBlock(pos.above(), Blocks.OAK_LOG.defaultBlockState(), Block.UPDATE_CLIENTS);
+
+        var after = HabitatSnapshot.capture(level, pos, HabitatSnapshot.RADIUS, before);
+        helper.assertTrue(after.countBlocks(BlockTags.LOGS, HabitatSnapshot.RADIUS) == 1, "Snapshot was reused after a block changed with flag 2");
+        helper.succeed();
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.kay9.dragonmounts.network;
+
+import com.github.kay9.dragonmounts.DMLRegistry;
+import com.github.kay9.dragonmounts.DragonMountsLegacy;
+import com.github.kay9.dragonmounts.data.BreedManager;
+import com.github.kay9.dragonmounts.dragon.TameableDragon;
+import io.netty.buffer.Unpooled;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundAddMobPacket;
+import net.minecraft.network.syncher.EntityDataAccessor;
+import net.minecraft.network.syncher.EntityDataSerializers;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import net.minecraftforge.network.NetworkDirection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bytes on the wire for a stable full of dragons, with dragon state as it used to be synced (breed id, saddle and age as
+ * synched data) and as it is now (spawn data, then {@link DragonStatePacket}s), per player tracking them.
+ * Both sides are measured by encoding the actual packets. Packet ids and the entity data every mob sends anyway are the
+ * same either way and left out.
+ * <p>
+ * Spawning trades the breed id string for Forge's spawn packet overhead, so it's only logged; changes must come out smaller.
+ */
+@GameTestHolder(DragonMountsLegacy.MOD_ID)
+@PrefixGameTestTemplate(false)
+public class DragonStateSyncTests
+{
+    private static final int DRAGONS = 50;
+
+    // the synched data dragons used to define; ids don't change the size
+    private static final EntityDataAccessor<String> LEGACY_BREED = new EntityDataAccessor<>(19, EntityDataSerializers.STRING);
+    private static final EntityDataAccessor<Boolean> LEGACY_SADDLED = new EntityDataAccessor<>(20, EntityDataSerializers.BOOLEAN);
+    private static final EntityDataAccessor<Integer> LEGACY_AGE = new EntityDataAccessor<>(21, EntityDataSerializers.INT);
+
+    @GameTest(template = "breeding_pen")
+    public static void stableBandwidth(GameTestHelper helper)
+    {
+        var random = new Random(0);
+        var breeds = List.copyOf(BreedManager.getBreeds());
+        var dragons = new ArrayList<TameableDragon>(DRAGONS);
+        for (int i = 0; i < DRAGONS; i++)
+        {
+            var dragon = helper.spawn(DMLRegistry.DRAGON.get(), new Vec3(2.5 + random.nextDouble() * 27, 1, 2.5 + random.nextDouble() * 27));
+            dragon.setBreed(breeds.get(random.nextInt(breeds.size())));
+            dragon.setSaddled(random.nextBoolean());
+            dragon.setAge(random.nextInt(4) == 0? -random.nextInt(TameableDragon.DEFAULT_GROWTH_TIME) : 0);
+            dragons.add(dragon);
+        }
+
+        // a player walks up to the stable
+        long legacySpawn = 0, spawn = 0;
+        for (var dragon : dragons)
+        {
+            legacySpawn += size(new ClientboundAddMobPacket(dragon));
+            legacySpawn += legacyItemsSize(dragon, true);
+            spawn += size(dragon.getAddEntityPacket());
+        }
+
+        // every dragon has its saddle taken off or put on in the same tick
+        long legacyChange = 0;
+        var entries = new ArrayList<DragonStatePacket.Entry>(DRAGONS);
+        for (var dragon : dragons)
+        {
+            dragon.setSaddled(!dragon.isSaddled());
+            var buf = new FriendlyByteBuf(Unpooled.buffer());
+            buf.writeVarInt(dragon.getId());
+            legacyChange += buf.writerIndex() + legacyItemsSize(dragon, false); // a packet of its own
+            entries.add(DragonStatePacket.Entry.of(dragon));
+        }
+        var change = size(DragonMountsLegacy.NETWORK.toVanillaPacket(new DragonStatePacket(entries), NetworkDirection.PLAY_TO_CLIENT));
+
+        DragonMountsLegacy.LOG.info("Dragon state for {} dragons, per tracking player: on spawn {} packets / {} bytes, was {} packets / {} bytes; " +
+                        "saddle change {} packet / {} bytes, was {} packets / {} bytes",
+                DRAGONS, DRAGONS, spawn, DRAGONS, legacySpawn, 1, change, DRAGONS, legacyChange);
+
+        helper.assertTrue(change < legacyChange, "Syncing dragon changes takes more bytes than it used to");
+        helper.succeed();
+    }
+
+    private static int size(Packet<?> packet)
+    {
+        var buf = new FriendlyByteBuf(Unpooled.buffer());
+        packet.write(buf);
+        return buf.writerIndex();
+    }
+
+    /**
+     * The legacy synched data entries: everything that isn't the default on spawn (they go out with the rest of the entity's
+     * data), only the saddle on a saddle change (in a packet of its own, with its end of data marker).
+     */
+    private static int legacyItemsSize(TameableDragon dragon, boolean onSpawn)
+    {
+        var items = new ArrayList<SynchedEntityData.DataItem<?>>();
+        if (onSpawn)
+        {
+            items.add(new SynchedEntityData.DataItem<>(LEGACY_BREED, dragon.getBreed().id().toString()));
+            if (dragon.isSaddled()) items.add(new SynchedEntityData.DataItem<>(LEGACY_SADDLED, true));
+            if (dragon.getAge() != 0) items.add(new SynchedEntityData.DataItem<>(LEGACY_AGE, dragon.getAge()));
+        }
+        else items.add(new SynchedEntityData.DataItem<>(LEGACY_SADDLED, dragon.isSaddled()));
+
+        var buf = new FriendlyByteBuf(Unpooled.buffer());
+        SynchedEntityData.pack(items, buf);
+        return onSpawn? buf.writerIndex() - 1 : buf.writerIndex(); // on spawn, the end marker is shared with the rest
+    }
+}